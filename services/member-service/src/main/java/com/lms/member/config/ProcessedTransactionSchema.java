@@ -0,0 +1,42 @@
+package com.lms.member.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * processed_transactions used to be unique on transaction_id alone. It is now
+ * unique on (transaction_id, adjustment), so a reconciliation adjustment can
+ * be recorded next to the transaction's award. ddl-auto: update adds the new
+ * column and constraint but never drops the old one, which would reject every
+ * adjustment; it is dropped here before any listener starts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessedTransactionSchema {
+    private static final String SINGLE_COLUMN_UNIQUE_SQL = "SELECT con.conname FROM pg_constraint con "
+            + "JOIN pg_class rel ON rel.oid = con.conrelid "
+            + "JOIN pg_attribute att ON att.attrelid = rel.oid AND att.attnum = con.conkey[1] "
+            + "WHERE rel.relname = 'processed_transactions' AND con.contype = 'u' "
+            + "AND array_length(con.conkey, 1) = 1 AND att.attname = 'transaction_id'";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Only injected so Hibernate's schema update has run first
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void dropSingleColumnUnique() {
+        List<String> constraints = jdbcTemplate.queryForList(SINGLE_COLUMN_UNIQUE_SQL, String.class);
+        for (String constraint : constraints) {
+            jdbcTemplate.execute("ALTER TABLE processed_transactions DROP CONSTRAINT \""
+                    + constraint.replace("\"", "\"\"") + "\"");
+            log.info("Dropped unique constraint {} on processed_transactions.transaction_id", constraint);
+        }
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.context.annotation.Configuration;
 public class RabbitMQConfig {
     public static final String POINTS_EXCHANGE = "points.earned.exchange";
     public static final String MEMBER_POINTS_QUEUE = "member.points.queue";
+    // Tier and role changes (MemberTierEvent) for services keeping a local copy
+    public static final String MEMBER_CHANGES_EXCHANGE = "member.changes.exchange";
 
     @Bean
     public FanoutExchange pointsExchange() {
@@ -25,6 +27,11 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(memberPointsQueue).to(pointsExchange);
     }
 
+    @Bean
+    public FanoutExchange memberChangesExchange() {
+        return new FanoutExchange(MEMBER_CHANGES_EXCHANGE);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -30,6 +30,8 @@ import java.util.concurrent.TimeUnit;
 @Tag(name = "Member Management", description = "APIs for managing customer members, tiers, and loyalty points")
 public class MemberController {
         private final MemberService memberService;
+        private final com.lms.member.repository.MemberTierSnapshotRepository memberTierSnapshotRepository;
+        private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
 
         @PostMapping
         @Operation(summary = "Create a new member", description = "Register a new customer member in the loyalty program")
@@ -83,6 +85,29 @@ public class MemberController {
                                 .body(members);
         }
 
+        @GetMapping("/tier-snapshot")
+        @Operation(summary = "Stream member tiers", description = "Stream the tier and role of every member as a JSON array, for services that keep a local copy fed by member.changes.exchange")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Tier snapshot streamed", content = @Content(schema = @Schema(implementation = com.lms.member.event.MemberTierEvent.class)))
+        })
+        public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> getTierSnapshot() {
+                org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody body = out -> {
+                        try (com.fasterxml.jackson.core.JsonGenerator generator = objectMapper.getFactory()
+                                        .createGenerator(out)) {
+                                generator.writeStartArray();
+                                memberTierSnapshotRepository.forEach(member -> {
+                                        try {
+                                                generator.writeObject(member);
+                                        } catch (java.io.IOException e) {
+                                                throw new java.io.UncheckedIOException(e);
+                                        }
+                                });
+                                generator.writeEndArray();
+                        }
+                };
+                return ResponseEntity.ok().contentType(org.springframework.http.MediaType.APPLICATION_JSON).body(body);
+        }
+
         @GetMapping("/{id}")
         @Operation(summary = "Get member by ID", description = "Retrieve member details including tier and points")
         @ApiResponses(value = {
@@ -0,0 +1,41 @@
+package com.lms.member.event;
+
+import com.lms.member.model.Member;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A member's current tier and role, published on member.changes.exchange
+ * after a transaction that created, deleted or re-tiered the member commits.
+ * Consumers keep the entry with the highest changedAt, which orders events
+ * and tier snapshot rows (updated_at) on the same clock.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberTierEvent {
+    private Long memberId;
+    private String tier;
+    private String role;
+    private boolean deleted;
+    // Epoch millis; set when the event is sent
+    private long changedAt;
+
+    public static MemberTierEvent of(Member member) {
+        return MemberTierEvent.builder()
+                .memberId(member.getId())
+                .tier(member.getTier().name())
+                .role(member.getRole().name())
+                .build();
+    }
+
+    public static MemberTierEvent deleted(Long memberId) {
+        return MemberTierEvent.builder()
+                .memberId(memberId)
+                .deleted(true)
+                .build();
+    }
+}
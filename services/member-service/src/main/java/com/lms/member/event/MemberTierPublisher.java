@@ -0,0 +1,30 @@
+package com.lms.member.event;
+
+import com.lms.member.config.RabbitMQConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sends {@link MemberTierEvent}s once the change that raised them has
+ * committed, so consumers never see a tier that was rolled back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MemberTierPublisher {
+    private final RabbitTemplate rabbitTemplate;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(MemberTierEvent event) {
+        event.setChangedAt(System.currentTimeMillis());
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.MEMBER_CHANGES_EXCHANGE, "", event);
+        } catch (Exception e) {
+            // Consumers converge on their next tier snapshot
+            log.warn("Could not publish tier change of member {}: {}", event.getMemberId(), e.getMessage());
+        }
+    }
+}
@@ -25,8 +25,9 @@ public class PointsEventConsumer {
         Object txIdObj = event.get("transactionId");
         Long transactionId = (txIdObj != null) ? ((Number) txIdObj).longValue() : 0L;
         int points = ((Number) event.get("pointsEarned")).intValue();
+        boolean adjustment = Boolean.TRUE.equals(event.get("adjustment"));
 
-        memberService.awardPoints(memberId, points, transactionId);
+        memberService.awardPoints(memberId, points, transactionId, adjustment);
 
         // Tier upgrade logic remains in service or here (service is better for
         // consistency)
@@ -6,7 +6,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "processed_transactions")
+@Table(name = "processed_transactions", uniqueConstraints = @UniqueConstraint(
+        name = "uk_processed_transactions_transaction_kind", columnNames = { "transaction_id", "adjustment" }))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,9 +18,13 @@ public class ProcessedTransaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private Long transactionId;
 
+    // Reconciliation top-up of the transaction's award, deduplicated separately from the award itself
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean adjustment;
+
     @CreationTimestamp
     private LocalDateTime processedAt;
 }
@@ -0,0 +1,43 @@
+package com.lms.member.repository;
+
+import com.lms.member.event.MemberTierEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * Tier and role of every member, streamed with a server-side cursor.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberTierSnapshotRepository {
+    private static final String SNAPSHOT_SQL = "SELECT id, tier, role, COALESCE(updated_at, created_at) AS changed_at "
+            + "FROM members";
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public void forEach(Consumer<MemberTierEvent> consumer) {
+        // PostgreSQL only honours the fetch size inside a transaction
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SNAPSHOT_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp changedAt = rs.getTimestamp("changed_at");
+            consumer.accept(MemberTierEvent.builder()
+                    .memberId(rs.getLong("id"))
+                    .tier(rs.getString("tier"))
+                    .role(rs.getString("role"))
+                    .changedAt(changedAt != null ? changedAt.getTime() : 0)
+                    .build());
+        }));
+    }
+}
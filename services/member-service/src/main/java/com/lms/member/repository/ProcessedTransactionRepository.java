@@ -5,5 +5,5 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 public interface ProcessedTransactionRepository extends JpaRepository<ProcessedTransaction, Long> {
-    Optional<ProcessedTransaction> findByTransactionId(Long transactionId);
+    Optional<ProcessedTransaction> findByTransactionIdAndAdjustment(Long transactionId, boolean adjustment);
 }
@@ -6,6 +6,7 @@ import com.lms.member.model.Member;
 import com.lms.member.model.MemberTier;
 import com.lms.member.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
@@ -21,18 +22,22 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class MemberService {
     private final MemberRepository memberRepository;
     private final com.lms.member.repository.ProcessedTransactionRepository processedTransactionRepository;
     private final PointExpirationService pointExpirationService;
     private final com.lms.member.repository.PointTransactionRepository pointTransactionRepository;
+    private final org.springframework.context.ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Member createMember(Member member) {
         if (memberRepository.findByEmail(member.getEmail()).isPresent()) {
             throw new RuntimeException("Member with email " + member.getEmail() + " already exists");
         }
-        return memberRepository.save(member);
+        Member saved = memberRepository.save(member);
+        eventPublisher.publishEvent(com.lms.member.event.MemberTierEvent.of(saved));
+        return saved;
     }
 
     @Cacheable(value = "members", key = "#id")
@@ -92,8 +97,19 @@ public class MemberService {
     @Transactional
     @CacheEvict(value = { "members", "dashboard-stats", "members-lite" }, allEntries = true)
     public void awardPoints(Long memberId, Integer points, Long transactionId) {
-        if (processedTransactionRepository.findByTransactionId(transactionId).isPresent()) {
-            System.err.println("Transaction " + transactionId + " already processed. Skipping.");
+        awardPoints(memberId, points, transactionId, false);
+    }
+
+    /**
+     * @param adjustment bonus points reward-service found missing when it reconciled a
+     *                   degraded rule evaluation of the transaction; applied once per transaction,
+     *                   independently of the transaction's own award
+     */
+    @Transactional
+    @CacheEvict(value = { "members", "dashboard-stats", "members-lite" }, allEntries = true)
+    public void awardPoints(Long memberId, Integer points, Long transactionId, boolean adjustment) {
+        if (processedTransactionRepository.findByTransactionIdAndAdjustment(transactionId, adjustment).isPresent()) {
+            log.warn("Transaction {}{} already processed. Skipping.", transactionId, adjustment ? " adjustment" : "");
             return;
         }
 
@@ -102,9 +118,13 @@ public class MemberService {
             member.setLifetimePoints(member.getLifetimePoints() + points);
 
             // Tier upgrade logic
+            MemberTier previousTier = member.getTier();
             updateTier(member);
 
             memberRepository.save(member);
+            if (member.getTier() != previousTier) {
+                eventPublisher.publishEvent(com.lms.member.event.MemberTierEvent.of(member));
+            }
 
             // Create point transaction record with expiry date
             java.time.LocalDateTime earnedDate = java.time.LocalDateTime.now();
@@ -117,11 +137,12 @@ public class MemberService {
                     .expiryDate(expiryDate)
                     .status(com.lms.member.model.PointTransaction.PointStatus.ACTIVE)
                     .transactionId(transactionId)
-                    .reason("Transaction reward")
+                    .reason(adjustment ? "Reconciliation adjustment" : "Transaction reward")
                     .build());
 
             processedTransactionRepository.save(com.lms.member.model.ProcessedTransaction.builder()
                     .transactionId(transactionId)
+                    .adjustment(adjustment)
                     .build());
         });
     }
@@ -182,6 +203,7 @@ public class MemberService {
             throw new RuntimeException("Member not found");
         }
         memberRepository.deleteById(id);
+        eventPublisher.publishEvent(com.lms.member.event.MemberTierEvent.deleted(id));
     }
 
     @Transactional
@@ -196,6 +218,7 @@ public class MemberService {
             member.setLifetimePoints(500);
             member.setTier(MemberTier.BRONZE);
             memberRepository.save(member);
+            eventPublisher.publishEvent(com.lms.member.event.MemberTierEvent.of(member));
 
             // Add Onboarding Points entry
             java.time.LocalDateTime earnedDate = java.time.LocalDateTime.now();
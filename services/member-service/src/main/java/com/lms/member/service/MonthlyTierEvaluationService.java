@@ -23,6 +23,7 @@ public class MonthlyTierEvaluationService {
     private final MemberRepository memberRepository;
     private final TierThresholdRepository tierThresholdRepository;
     private final com.lms.member.client.TransactionClient transactionClient;
+    private final org.springframework.context.ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void evaluateAllMemberTiers() {
@@ -69,6 +70,7 @@ public class MonthlyTierEvaluationService {
                 member.setTier(qualifiedTier);
                 member.setLastTierEvaluationDate(LocalDate.now());
                 memberRepository.save(member);
+                eventPublisher.publishEvent(com.lms.member.event.MemberTierEvent.of(member));
 
                 log.info("Member {} tier changed: {} -> {}", member.getId(), oldTier, qualifiedTier);
             } else {
@@ -0,0 +1,102 @@
+package com.lms.reward.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base points lookup of TieredPointCalculationService: the stored matrix
+ * (binary search over BigDecimal bounds, tier scan, array read) against the
+ * nested string switches it replaced, on the same amounts and tiers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointsMatrixBenchmark {
+    private static final String[] TIERS = {"BRONZE", "SILVER", "GOLD", "PLATINUM", "DIAMOND"};
+
+    private PointsMatrix matrix;
+    private BigDecimal[] amounts;
+    private String[] tiers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matrix = PointsMatrix.defaults();
+        Random random = new Random(11L);
+        amounts = new BigDecimal[1024];
+        tiers = new String[1024];
+        for (int i = 0; i < amounts.length; i++) {
+            // Transaction amounts with cents, across all four ranges
+            amounts[i] = BigDecimal.valueOf(random.nextInt(800_000), 2);
+            // Fresh strings, as deserialized from events
+            tiers[i] = new String(TIERS[random.nextInt(TIERS.length)]);
+        }
+    }
+
+    @Benchmark
+    public int matrix() {
+        int i = next++ & (amounts.length - 1);
+        BigDecimal amount = amounts[i];
+        return matrix.pointsAt(matrix.tierIndex(tiers[i]), matrix.rangeIndex(amount));
+    }
+
+    @Benchmark
+    public int hardcodedSwitch() {
+        int i = next++ & (amounts.length - 1);
+        return switchPoints(amounts[i].doubleValue(), tiers[i]);
+    }
+
+    // The lookup TieredPointCalculationService used before the matrix was stored
+    private static int switchPoints(double amount, String tier) {
+        if (amount <= 100) {
+            return switch (tier) {
+                case "BRONZE", "SILVER" -> 1;
+                case "GOLD" -> 2;
+                case "PLATINUM" -> 3;
+                case "DIAMOND" -> 5;
+                default -> 1;
+            };
+        } else if (amount <= 1000) {
+            return switch (tier) {
+                case "BRONZE", "SILVER" -> 2;
+                case "GOLD" -> 3;
+                case "PLATINUM" -> 4;
+                case "DIAMOND" -> 6;
+                default -> 2;
+            };
+        } else if (amount <= 5000) {
+            return switch (tier) {
+                case "BRONZE" -> 3;
+                case "SILVER" -> 4;
+                case "GOLD" -> 5;
+                case "PLATINUM" -> 6;
+                case "DIAMOND" -> 8;
+                default -> 3;
+            };
+        }
+        return switch (tier) {
+            case "BRONZE" -> 5;
+            case "SILVER" -> 6;
+            case "GOLD" -> 8;
+            case "PLATINUM" -> 10;
+            case "DIAMOND" -> 15;
+            default -> 5;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.lms.reward.client;
+
+import com.lms.reward.model.MemberTierChange;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@FeignClient(name = "member-service", url = "${app.member-service-url:http://localhost:8081}")
+public interface MemberClient {
+    @GetMapping("/api/v1/members/{id}")
+    MemberTierChange getMember(@PathVariable("id") Long id);
+
+    // Streamed JSON array of MemberTierChange; the caller reads and closes the body
+    @GetMapping("/api/v1/members/tier-snapshot")
+    feign.Response getTierSnapshot();
+}
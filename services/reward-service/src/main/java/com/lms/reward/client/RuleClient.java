@@ -1,16 +1,39 @@
 package com.lms.reward.client;
 
 import com.lms.reward.model.TransactionFact;
-import lombok.RequiredArgsConstructor;
+import com.lms.reward.service.DegradedRuleEvaluator;
+import com.lms.reward.service.RuleEvaluator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Service
-@RequiredArgsConstructor
-public class RuleClient {
-    private final RestTemplate restTemplate = new RestTemplate();
+@ConditionalOnProperty(name = "rules.evaluation-mode", havingValue = "HTTP", matchIfMissing = true)
+@Slf4j
+public class RuleClient implements RuleEvaluator {
+    private final RestTemplate restTemplate;
+    private final DegradedRuleEvaluator degradedRuleEvaluator;
     private static final String RULE_ENGINE_URL = "http://localhost:8083/api/v1/rules/evaluate";
+    private static final String RULE_ENGINE_BATCH_URL = RULE_ENGINE_URL + "/batch";
+
+    // A slow rule engine fails the call (and counts against the breaker) instead of holding a listener thread
+    public RuleClient(@Value("${rules.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${rules.http.read-timeout-ms:2000}") int readTimeoutMs,
+            DegradedRuleEvaluator degradedRuleEvaluator) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.degradedRuleEvaluator = degradedRuleEvaluator;
+    }
 
+    @Override
     @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(name = "ruleEngine", fallbackMethod = "evaluateRulesFallback")
     public com.lms.reward.model.TransactionFact evaluateRules(com.lms.reward.model.RuleEvaluationRequest request) {
         return restTemplate.postForObject(RULE_ENGINE_URL, request, com.lms.reward.model.TransactionFact.class);
@@ -18,8 +41,26 @@ public class RuleClient {
 
     public com.lms.reward.model.TransactionFact evaluateRulesFallback(
             com.lms.reward.model.RuleEvaluationRequest request, Throwable t) {
-        System.err.println(
-                "Circuit Breaker triggered: returning default factor for " + request.getTransaction().getMemberId());
-        return request.getTransaction(); // Return original fact without modifications
+        log.warn("Rule engine unavailable ({}), evaluating member {} locally (degraded)", t.getMessage(),
+                request.getTransaction().getMemberId());
+        return degradedRuleEvaluator.evaluate(request); // Cached simple rules only; reconciled later
+    }
+
+    @Override
+    @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(name = "ruleEngine", fallbackMethod = "evaluateBatchFallback")
+    public List<TransactionFact> evaluateBatch(List<com.lms.reward.model.RuleEvaluationRequest> requests) {
+        TransactionFact[] results = restTemplate.postForObject(RULE_ENGINE_BATCH_URL, requests, TransactionFact[].class);
+        if (results == null || results.length != requests.size()) {
+            throw new IllegalStateException("Rule engine returned " + (results == null ? 0 : results.length)
+                    + " results for " + requests.size() + " requests");
+        }
+        return Arrays.asList(results);
+    }
+
+    public List<TransactionFact> evaluateBatchFallback(List<com.lms.reward.model.RuleEvaluationRequest> requests,
+            Throwable t) {
+        log.warn("Rule engine unavailable ({}), evaluating a batch of {} locally (degraded)", t.getMessage(),
+                requests.size());
+        return requests.stream().map(degradedRuleEvaluator::evaluate).toList();
     }
 }
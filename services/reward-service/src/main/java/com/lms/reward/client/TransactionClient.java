@@ -4,10 +4,28 @@ import com.lms.reward.model.TransactionSummary;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
+import java.util.List;
+
 @FeignClient(name = "transaction-service", url = "${app.transaction-service-url:http://localhost:8082}")
 public interface TransactionClient {
     @GetMapping("/api/v1/transactions/summary/{memberId}")
     TransactionSummary getSummary(@PathVariable("memberId") Long memberId, @RequestParam("period") String period);
+
+    // One summary per member, in request order
+    @PostMapping("/api/v1/transactions/summary/batch")
+    List<TransactionSummary> getSummaries(@RequestBody Collection<Long> memberIds, @RequestParam("period") String period);
+
+    // Streamed JSON array of DailyActivity before until, if given; the caller reads and closes the body
+    @GetMapping("/api/v1/transactions/activity/daily")
+    feign.Response getDailyActivity(@RequestParam("since") String since,
+            @RequestParam(value = "until", required = false) String until, @RequestParam("afterId") long afterId);
+
+    // Streamed JSON array of TransactionActivity; the caller reads and closes the body
+    @GetMapping("/api/v1/transactions/activity/transactions")
+    feign.Response getActivityTransactions(@RequestParam("since") String since);
 }
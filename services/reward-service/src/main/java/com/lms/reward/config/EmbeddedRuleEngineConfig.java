@@ -0,0 +1,72 @@
+package com.lms.reward.config;
+
+import com.lms.reward.RewardServiceApplication;
+import com.lms.reward.service.EmbeddedRuleEvaluator;
+import com.lms.rule.config.RabbitConfig;
+import com.lms.rule.model.Rule;
+import com.lms.rule.repository.RuleRepository;
+import com.lms.rule.service.EvaluationCache;
+import com.lms.rule.service.RuleAuditWriter;
+import com.lms.rule.service.RuleChangeListener;
+import com.lms.rule.service.RuleLoaderService;
+import com.lms.rule.service.RuleMatcherService;
+import com.lms.rule.service.RuleMetrics;
+import com.lms.rule.service.RulePublisher;
+import com.lms.rule.service.RuleSnapshotService;
+import com.lms.rule.service.RuleVersionStore;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * rules.evaluation-mode=EMBEDDED: runs the rule engine's matcher, snapshot
+ * and Drools loading inside reward-service, reading the shared rules table.
+ *
+ * Rules are loaded once the application is ready. Changes published by
+ * rule-engine-service arrive through this instance's own queue on the rule
+ * change fanout and are applied the same way rule-engine instances apply
+ * them, including the periodic check against rule_set_version.
+ *
+ * The rule engine classes are only on the classpath when reward-service is
+ * built with -PembeddedRules. Its entities and repositories are scanned
+ * next to reward-service's own, which the explicit scans would otherwise
+ * replace.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rules.evaluation-mode", havingValue = "EMBEDDED")
+@EntityScan(basePackageClasses = {Rule.class, RewardServiceApplication.class})
+@EnableJpaRepositories(basePackageClasses = {RuleRepository.class, RewardServiceApplication.class})
+@Import({RuleSnapshotService.class, RuleLoaderService.class, RuleMatcherService.class, RuleMetrics.class,
+        RuleAuditWriter.class, EvaluationCache.class, RuleVersionStore.class, RulePublisher.class,
+        RuleChangeListener.class})
+public class EmbeddedRuleEngineConfig {
+
+    @Bean
+    public EmbeddedRuleEvaluator embeddedRuleEvaluator(RuleMatcherService ruleMatcherService) {
+        return new EmbeddedRuleEvaluator(ruleMatcherService);
+    }
+
+    @Bean
+    public FanoutExchange ruleChangeExchange() {
+        return new FanoutExchange(RabbitConfig.RULE_CHANGE_EXCHANGE);
+    }
+
+    @Bean
+    public Queue ruleChangeQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("rule.changes.reward."));
+    }
+
+    @Bean
+    public Binding ruleChangeBinding(Queue ruleChangeQueue, FanoutExchange ruleChangeExchange) {
+        return BindingBuilder.bind(ruleChangeQueue).to(ruleChangeExchange);
+    }
+}
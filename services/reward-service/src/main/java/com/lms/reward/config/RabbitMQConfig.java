@@ -1,13 +1,110 @@
 package com.lms.reward.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMQConfig {
+    // Tier and role changes published by member-service
+    public static final String MEMBER_CHANGES_EXCHANGE = "member.changes.exchange";
+    // Awards made from degraded rule evaluations, consumed while the rule engine is available
+    public static final String RECONCILIATION_QUEUE = "reward.reconciliation.queue";
+    // Degraded awards that could not be reconciled in rewards.reconciliation.max-attempts tries
+    public static final String RECONCILIATION_PARKING_QUEUE = "reward.reconciliation.parking";
+    // Batch-mode transaction events that failed again after redelivery, kept for inspection and replay
+    public static final String TRANSACTION_PARKING_QUEUE = "transaction.created.parking";
+    // Where transaction-service publishes transaction.created
+    public static final String TRANSACTION_EXCHANGE = "transaction.exchange";
+    public static final String TRANSACTION_CREATED_ROUTING_KEY = "transaction.created";
+
+    @Bean
+    public FanoutExchange memberChangesExchange() {
+        return new FanoutExchange(MEMBER_CHANGES_EXCHANGE);
+    }
+
+    // One queue per instance, removed when it disconnects
+    @Bean
+    public Queue memberChangeQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("member.changes.reward."));
+    }
+
+    @Bean
+    public Binding memberChangeBinding(Queue memberChangeQueue, FanoutExchange memberChangesExchange) {
+        return BindingBuilder.bind(memberChangeQueue).to(memberChangesExchange);
+    }
+
+    @Bean
+    public TopicExchange transactionExchange() {
+        return new TopicExchange(TRANSACTION_EXCHANGE);
+    }
+
+    // One queue per instance for MemberActivityStore, so every instance sees every transaction;
+    // only declared while the store is enabled, as nothing else would drain it
+    @Bean
+    @ConditionalOnProperty(name = "rewards.activity.enabled", havingValue = "true")
+    public Queue transactionActivityQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("transaction.activity.reward."));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rewards.activity.enabled", havingValue = "true")
+    public Binding transactionActivityBinding(Queue transactionActivityQueue, TopicExchange transactionExchange) {
+        return BindingBuilder.bind(transactionActivityQueue).to(transactionExchange)
+                .with(TRANSACTION_CREATED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Queue reconciliationQueue() {
+        return new Queue(RECONCILIATION_QUEUE, true);
+    }
+
+    @Bean
+    public Queue reconciliationParkingQueue() {
+        return new Queue(RECONCILIATION_PARKING_QUEUE, true);
+    }
+
+    @Bean
+    public Queue transactionParkingQueue() {
+        return new Queue(TRANSACTION_PARKING_QUEUE, true);
+    }
+
+    // Batch mode of transaction.created.queue (rewards.listener.batch.enabled); the listener acks each batch itself
+    @Bean
+    public SimpleRabbitListenerContainerFactory transactionBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            @Value("${rewards.listener.batch.size:200}") int batchSize,
+            @Value("${rewards.listener.batch.prefetch:1000}") int prefetch,
+            @Value("${rewards.listener.batch.receive-timeout-ms:200}") long receiveTimeoutMs,
+            @Value("${rewards.listener.batch.concurrency:1}") int concurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        // A batch can only fill up if the broker lets that many messages be unacknowledged
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        // A partial batch is delivered once no message arrives for this long
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
     @Bean
     public Jackson2JsonMessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -0,0 +1,193 @@
+package com.lms.reward.event;
+
+import com.lms.reward.config.RabbitMQConfig;
+import com.lms.reward.model.DegradedAward;
+import com.lms.reward.model.RuleEvaluationRequest;
+import com.lms.reward.model.TransactionFact;
+import com.lms.reward.service.RuleEvaluator;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corrects awards made from degraded rule evaluations.
+ *
+ * Each degraded award is queued on reward.reconciliation.queue with the
+ * request it was evaluated for. The queue is only consumed while the
+ * ruleEngine circuit breaker is closed: its listener starts when the breaker
+ * closes and stops when it opens. An evaluation that comes back degraded
+ * while the breaker is open or half-open also stops it, and it is tried again
+ * after rewards.reconciliation.retry-interval-ms if the breaker is closed by
+ * then, so an outage never has the listener requeueing in a loop.
+ *
+ * One that comes back degraded while the breaker is closed is a failure of
+ * that award rather than an outage: the award goes back to the end of the
+ * queue with its attempts counted, and after
+ * rewards.reconciliation.max-attempts it is moved to
+ * reward.reconciliation.parking instead.
+ *
+ * A reconciled transaction whose full evaluation yields more bonus points
+ * than were awarded gets the difference as an adjustment, which
+ * member-service applies once per transaction. Bonus points awarded in
+ * excess are logged, not taken back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DegradedAwardReconciler {
+        static final String LISTENER_ID = "degradedAwardReconciler";
+        private static final String RULE_ENGINE_BREAKER = "ruleEngine";
+
+        private final RuleEvaluator ruleEvaluator;
+        private final PointsEarnedProducer pointsEarnedProducer;
+        private final RabbitTemplate rabbitTemplate;
+        private final RabbitListenerEndpointRegistry listenerRegistry;
+        private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+        @Value("${rewards.reconciliation.retry-interval-ms:30000}")
+        private long retryIntervalMs;
+
+        @Value("${rewards.reconciliation.max-attempts:5}")
+        private int maxAttempts;
+
+        // Set before the listener is stopped, so messages already prefetched go straight back
+        private volatile boolean paused = true;
+
+        // Starting and stopping must not run on a listener thread that is waiting for itself
+        private final ScheduledExecutorService lifecycle = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "reward-reconciliation");
+                thread.setDaemon(true);
+                return thread;
+        });
+
+        @org.springframework.context.event.EventListener(ApplicationReadyEvent.class)
+        public void start() {
+                CircuitBreaker breaker = breaker();
+                breaker.getEventPublisher().onStateTransition(event -> {
+                        CircuitBreaker.State state = event.getStateTransition().getToState();
+                        if (state == CircuitBreaker.State.CLOSED) {
+                                resume();
+                        } else if (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN) {
+                                pause();
+                        }
+                });
+                if (breaker.getState() == CircuitBreaker.State.CLOSED) {
+                        resume();
+                }
+        }
+
+        /**
+         * Queues a transaction whose award came from a degraded evaluation.
+         */
+        public void enqueue(Long transactionId, RuleEvaluationRequest request, TransactionFact evaluated) {
+                try {
+                        rabbitTemplate.convertAndSend(RabbitMQConfig.RECONCILIATION_QUEUE, DegradedAward.builder()
+                                        .transactionId(transactionId)
+                                        .request(request)
+                                        .bonusPointsAwarded(evaluated.getBonusPoints())
+                                        .degradedAt(Instant.now())
+                                        .build());
+                } catch (Exception e) {
+                        // The award stands; only its later correction is lost
+                        log.error("Could not queue degraded award of transaction {} for reconciliation: {}",
+                                        transactionId, e.getMessage());
+                }
+        }
+
+        @RabbitListener(id = LISTENER_ID, queues = RabbitMQConfig.RECONCILIATION_QUEUE, autoStartup = "false")
+        public void reconcile(DegradedAward award) {
+                if (paused) {
+                        throw new ImmediateRequeueAmqpException("Reconciliation paused, transaction "
+                                        + award.getTransactionId() + " requeued");
+                }
+                TransactionFact evaluated = ruleEvaluator.evaluateRules(award.getRequest());
+                if (evaluated.isDegraded()) {
+                        CircuitBreaker.State state = breaker().getState();
+                        if (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN
+                                        || state == CircuitBreaker.State.HALF_OPEN) {
+                                // Also retried on a timer, in case the breaker closed before the pause
+                                pause();
+                                lifecycle.schedule(this::resumeIfClosed, retryIntervalMs, TimeUnit.MILLISECONDS);
+                                throw new ImmediateRequeueAmqpException("Rule engine unavailable, transaction "
+                                                + award.getTransactionId() + " not reconciled");
+                        }
+                        retryLater(award);
+                        return;
+                }
+
+                int missing = evaluated.getBonusPoints() - award.getBonusPointsAwarded();
+                if (missing > 0) {
+                        pointsEarnedProducer.sendPointsEarned(PointsEarnedEvent.builder()
+                                        .memberId(award.getRequest().getTransaction().getMemberId())
+                                        .transactionId(award.getTransactionId())
+                                        .pointsEarned(missing)
+                                        .reason("Bonus points adjustment after degraded rule evaluation")
+                                        .adjustment(true)
+                                        .build());
+                        log.info("Transaction {} reconciled: {} bonus points added", award.getTransactionId(), missing);
+                } else if (missing < 0) {
+                        log.warn("Transaction {} was awarded {} bonus points more than the rules give; not reclaimed",
+                                        award.getTransactionId(), -missing);
+                } else {
+                        log.debug("Transaction {} reconciled: degraded award was correct", award.getTransactionId());
+                }
+        }
+
+        private void retryLater(DegradedAward award) {
+                award.setAttempts(award.getAttempts() + 1);
+                if (award.getAttempts() < maxAttempts) {
+                        rabbitTemplate.convertAndSend(RabbitMQConfig.RECONCILIATION_QUEUE, award);
+                        log.warn("Transaction {} not reconciled: evaluation degraded with the rule engine up "
+                                        + "(attempt {} of {})", award.getTransactionId(), award.getAttempts(),
+                                        maxAttempts);
+                } else {
+                        rabbitTemplate.convertAndSend(RabbitMQConfig.RECONCILIATION_PARKING_QUEUE, award);
+                        log.error("Transaction {} parked in {} after {} degraded evaluations", award.getTransactionId(),
+                                        RabbitMQConfig.RECONCILIATION_PARKING_QUEUE, award.getAttempts());
+                }
+        }
+
+        private void resume() {
+                paused = false;
+                lifecycle.execute(() -> container().start());
+        }
+
+        private void pause() {
+                paused = true;
+                lifecycle.execute(() -> container().stop());
+        }
+
+        private void resumeIfClosed() {
+                if (breaker().getState() == CircuitBreaker.State.CLOSED) {
+                        resume();
+                }
+        }
+
+        private CircuitBreaker breaker() {
+                return circuitBreakerRegistry.circuitBreaker(RULE_ENGINE_BREAKER);
+        }
+
+        private MessageListenerContainer container() {
+                return listenerRegistry.getListenerContainer(LISTENER_ID);
+        }
+
+        @PreDestroy
+        void shutdown() {
+                lifecycle.shutdownNow();
+        }
+}
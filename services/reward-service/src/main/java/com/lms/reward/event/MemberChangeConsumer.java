@@ -0,0 +1,22 @@
+package com.lms.reward.event;
+
+import com.lms.reward.model.MemberTierChange;
+import com.lms.reward.service.MemberTierCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MemberChangeConsumer {
+        private final MemberTierCache memberTierCache;
+
+        // Each instance has its own queue on the fanout, so every cache sees every change
+        @RabbitListener(queues = "#{memberChangeQueue.name}")
+        public void handleMemberChange(MemberTierChange change) {
+                log.debug("Received member change: {}", change);
+                memberTierCache.apply(change);
+        }
+}
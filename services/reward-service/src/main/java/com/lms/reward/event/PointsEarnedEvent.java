@@ -14,4 +14,6 @@ public class PointsEarnedEvent {
     private Long transactionId;
     private Integer pointsEarned;
     private String reason;
+    // Bonus points a degraded evaluation of transactionId missed, awarded once by reconciliation
+    private boolean adjustment;
 }
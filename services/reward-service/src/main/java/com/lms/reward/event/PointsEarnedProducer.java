@@ -1,15 +1,84 @@
 package com.lms.reward.event;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class PointsEarnedProducer {
+    private static final String POINTS_EXCHANGE = "points.earned.exchange";
+
     private final RabbitTemplate rabbitTemplate;
 
+    @Value("${rewards.listener.batch.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+
     public void sendPointsEarned(PointsEarnedEvent event) {
-        rabbitTemplate.convertAndSend("points.earned.exchange", "", event);
+        rabbitTemplate.convertAndSend(POINTS_EXCHANGE, "", event);
+    }
+
+    /**
+     * Sends all events without waiting in between, then waits once for their
+     * publisher confirms (spring.rabbitmq.publisher-confirm-type: correlated).
+     *
+     * @return per event, whether the broker confirmed it; all true when confirms are off
+     */
+    public boolean[] sendAllConfirmed(List<PointsEarnedEvent> events) {
+        boolean[] confirmed = new boolean[events.size()];
+        if (!rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            log.debug("Publisher confirms disabled; sending {} points events unconfirmed", events.size());
+            for (int i = 0; i < events.size(); i++) {
+                sendPointsEarned(events.get(i));
+                confirmed[i] = true;
+            }
+            return confirmed;
+        }
+
+        CorrelationData[] correlations = new CorrelationData[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(events.get(i).getTransactionId()));
+            try {
+                rabbitTemplate.convertAndSend(POINTS_EXCHANGE, "", events.get(i), correlation);
+                correlations[i] = correlation;
+            } catch (Exception e) {
+                log.warn("Could not send points for transaction {}: {}", events.get(i).getTransactionId(),
+                        e.getMessage());
+            }
+        }
+
+        CompletableFuture<?>[] futures = Arrays.stream(correlations)
+                .filter(Objects::nonNull)
+                .map(CorrelationData::getFuture)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Publisher confirms of {} points events timed out after {} ms", futures.length, confirmTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Only reached if a confirm future fails; those events count as unconfirmed below
+        }
+        for (int i = 0; i < correlations.length; i++) {
+            CompletableFuture<CorrelationData.Confirm> future = correlations[i] != null
+                    ? correlations[i].getFuture()
+                    : null;
+            confirmed[i] = future != null && future.isDone() && !future.isCompletedExceptionally()
+                    && future.join().isAck();
+        }
+        return confirmed;
     }
 }
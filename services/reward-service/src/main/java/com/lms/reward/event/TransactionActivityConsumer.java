@@ -0,0 +1,33 @@
+package com.lms.reward.event;
+
+import com.lms.reward.service.MemberActivityStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "rewards.activity.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionActivityConsumer {
+        private final MemberActivityStore memberActivityStore;
+
+        // Each instance has its own queue next to the shared transaction.created.queue, so every store sees
+        // every transaction; the instance awarding one records it as well, and the store counts it once
+        @RabbitListener(queues = "#{transactionActivityQueue.name}")
+        public void handleTransactionCreated(Map<String, Object> event) {
+                TransactionEventConsumer.CreatedTransaction transaction;
+                try {
+                        transaction = TransactionEventConsumer.CreatedTransaction.of(event);
+                } catch (Exception e) {
+                        log.warn("Unreadable transaction event not counted in member activity: {}", event);
+                        return;
+                }
+                memberActivityStore.record(transaction.memberId(), transaction.transactionId(),
+                                transaction.activityDate(), transaction.amount());
+        }
+}
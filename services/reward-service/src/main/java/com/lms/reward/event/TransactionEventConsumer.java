@@ -1,83 +1,292 @@
 package com.lms.reward.event;
 
-import com.lms.reward.client.RuleClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.reward.config.RabbitMQConfig;
+import com.lms.reward.model.MemberActivityFact;
+import com.lms.reward.model.RuleEvaluationRequest;
+import com.lms.reward.model.TransactionFact;
+import com.lms.reward.service.MemberActivityLookup;
+import com.lms.reward.service.MemberActivityStore;
+import com.lms.reward.service.MemberTierCache;
+import com.lms.reward.service.RuleEvaluator;
 import com.lms.reward.service.TieredPointCalculationService;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Awards points for transaction.created.queue.
+ *
+ * By default each message is processed on its own. With
+ * rewards.listener.batch.enabled the queue is drained in batches instead:
+ * the activity of all members in a batch is resolved at once, the batch is
+ * evaluated against one rule snapshot, and its points events are published
+ * together and confirmed asynchronously. The batch is acknowledged with one
+ * ack; a message that fails on its own is rejected individually, requeued on
+ * its first delivery and moved to transaction.created.parking on its second.
+ * If it cannot be parked it is requeued again rather than dropped.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionEventConsumer {
+        private static final String QUEUE = "transaction.created.queue";
+
         private final TieredPointCalculationService tieredPointCalculationService;
         private final PointsEarnedProducer pointsEarnedProducer;
-        private final RuleClient ruleClient;
-        private final com.lms.reward.client.TransactionClient transactionClient;
+        private final RuleEvaluator ruleEvaluator;
+        private final MemberActivityStore memberActivityStore;
+        private final MemberActivityLookup memberActivityLookup;
+        private final MemberTierCache memberTierCache;
+        private final DegradedAwardReconciler degradedAwardReconciler;
+        private final ObjectMapper objectMapper;
+        private final RabbitTemplate rabbitTemplate;
+
+        @Value("${rewards.listener.batch.confirm-timeout-ms:10000}")
+        private long confirmTimeoutMs;
 
-        @RabbitListener(queues = "transaction.created.queue")
+        // Listener threads share no per-transaction state; MemberActivityStore is thread-safe and
+        // order-independent, so transactions of one member may be processed concurrently
+        @RabbitListener(queues = QUEUE, concurrency = "${rewards.listener.concurrency:1}",
+                        autoStartup = "#{!${rewards.listener.batch.enabled:false}}")
         public void handleTransactionCreated(Map<String, Object> event) {
                 log.info("Received transaction event: {}", event);
 
-                Long memberId = ((Number) event.get("memberId")).longValue();
-                Long transactionId = ((Number) event.get("transactionId")).longValue();
-                java.math.BigDecimal amount = java.math.BigDecimal
-                                .valueOf(((Number) event.get("amount")).doubleValue());
-                String paymentMethod = (String) event.get("paymentMethod");
-                String category = (String) event.get("productCategory");
-
-                // Orchestration: Fetch member and activity (mocked/simplified for now)
-                com.lms.reward.model.TransactionFact fact = com.lms.reward.model.TransactionFact.builder()
-                                .memberId(memberId)
-                                .amount(amount)
-                                .paymentMethod(paymentMethod)
-                                .productCategory(category)
-                                .memberTier("BRONZE") // In production, fetch from MemberClient
-                                .role("CUSTOMER") // In production, fetch from MemberClient
-                                .build();
+                CreatedTransaction transaction = CreatedTransaction.of(event);
+                recordActivity(transaction);
 
-                // Fetch real activity summaries
-                com.lms.reward.model.TransactionSummary monthly = transactionClient.getSummary(memberId, "MONTHLY");
-                com.lms.reward.model.TransactionSummary quarterly = transactionClient.getSummary(memberId, "QUARTERLY");
-
-                com.lms.reward.model.MemberActivityFact activity = com.lms.reward.model.MemberActivityFact.builder()
-                                .memberId(memberId)
-                                .monthlyTransactionCount(monthly.getTransactionCount())
-                                .monthlyTotalSpent(monthly.getTotalAmount())
-                                .quarterlyTransactionCount(quarterly.getTransactionCount())
-                                .quarterlyTotalSpent(quarterly.getTotalAmount())
-                                .transactionCount(monthly.getTransactionCount())
-                                .totalSpent(monthly.getTotalAmount())
-                                .build();
+                // Rolling activity kept from transaction events; summary calls only until it is loaded
+                MemberActivityFact activity = memberActivityLookup.activity(transaction.memberId());
+                TransactionFact fact = toFact(transaction, standing(transaction.memberId()));
 
-                com.lms.reward.model.RuleEvaluationRequest request = com.lms.reward.model.RuleEvaluationRequest
-                                .builder()
+                // Evaluate rules via the rule engine, remote or embedded (for bonus points only)
+                RuleEvaluationRequest request = RuleEvaluationRequest.builder()
                                 .transaction(fact)
                                 .activity(activity)
                                 .build();
+                TransactionFact evaluatedFact = ruleEvaluator.evaluateRules(request);
+
+                pointsEarnedProducer.sendPointsEarned(award(transaction, fact, evaluatedFact));
+                if (evaluatedFact.isDegraded()) {
+                        degradedAwardReconciler.enqueue(transaction.transactionId(), request, evaluatedFact);
+                }
+        }
+
+        @RabbitListener(queues = QUEUE, containerFactory = "transactionBatchContainerFactory",
+                        autoStartup = "${rewards.listener.batch.enabled:false}")
+        public void handleTransactionsCreated(List<Message> messages, Channel channel) throws IOException {
+                int size = messages.size();
+                boolean[] failed = new boolean[size];
+                try {
+                        process(messages, failed);
+                } catch (Exception e) {
+                        // A failure shared by the whole batch, e.g. the bulk activity lookup
+                        log.error("Batch of {} transaction events failed", size, e);
+                        Arrays.fill(failed, true);
+                }
+                settle(messages, failed, channel);
+        }
+
+        private void process(List<Message> messages, boolean[] failed) {
+                int size = messages.size();
+                CreatedTransaction[] transactions = new CreatedTransaction[size];
+                Set<Long> memberIds = new LinkedHashSet<>();
+                for (int i = 0; i < size; i++) {
+                        try {
+                                transactions[i] = CreatedTransaction.of(
+                                                objectMapper.readValue(messages.get(i).getBody(), Map.class));
+                                recordActivity(transactions[i]);
+                                memberIds.add(transactions[i].memberId());
+                        } catch (Exception e) {
+                                log.error("Unreadable transaction event {}: {}", i, e.getMessage());
+                                failed[i] = true;
+                        }
+                }
+
+                Map<Long, MemberActivityFact> activities = memberActivityLookup.activities(memberIds);
+                Map<Long, MemberTierCache.Standing> standings = new HashMap<>(memberIds.size() * 2);
+                List<Integer> positions = new ArrayList<>(size);
+                List<RuleEvaluationRequest> requests = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                        if (failed[i]) {
+                                continue;
+                        }
+                        Long memberId = transactions[i].memberId();
+                        MemberTierCache.Standing standing = standings.computeIfAbsent(memberId, this::standing);
+                        positions.add(i);
+                        requests.add(RuleEvaluationRequest.builder()
+                                        .transaction(toFact(transactions[i], standing))
+                                        .activity(activities.get(memberId))
+                                        .build());
+                }
+                if (requests.isEmpty()) {
+                        return;
+                }
+
+                List<TransactionFact> evaluated = ruleEvaluator.evaluateBatch(requests);
+                List<Integer> awarded = new ArrayList<>(requests.size());
+                List<PointsEarnedEvent> events = new ArrayList<>(requests.size());
+                for (int r = 0; r < requests.size(); r++) {
+                        int i = positions.get(r);
+                        try {
+                                if (evaluated.get(r) == null) {
+                                        throw new IllegalStateException("rules could not be evaluated");
+                                }
+                                events.add(award(transactions[i], requests.get(r).getTransaction(), evaluated.get(r)));
+                                awarded.add(i);
+                        } catch (Exception e) {
+                                log.error("Transaction {} not awarded: {}", transactions[i].transactionId(),
+                                                e.getMessage());
+                                failed[i] = true;
+                        }
+                }
+
+                boolean[] confirmed = pointsEarnedProducer.sendAllConfirmed(events);
+                for (int e = 0; e < confirmed.length; e++) {
+                        if (!confirmed[e]) {
+                                failed[awarded.get(e)] = true;
+                        }
+                }
+                for (int r = 0; r < requests.size(); r++) {
+                        int i = positions.get(r);
+                        if (!failed[i] && evaluated.get(r).isDegraded()) {
+                                degradedAwardReconciler.enqueue(transactions[i].transactionId(), requests.get(r),
+                                                evaluated.get(r));
+                        }
+                }
+                log.debug("Processed {} transaction events for {} members: {} awarded", size, memberIds.size(),
+                                events.size());
+        }
+
+        // Failures are rejected one by one first; the single multiple-ack then settles the rest
+        private void settle(List<Message> messages, boolean[] failed, Channel channel) throws IOException {
+                long lastSucceeded = -1;
+                for (int i = 0; i < messages.size(); i++) {
+                        MessageProperties properties = messages.get(i)
+                                        .getMessageProperties();
+                        if (failed[i]) {
+                                boolean requeue = !Boolean.TRUE.equals(properties.isRedelivered())
+                                                || !park(messages.get(i));
+                                channel.basicNack(properties.getDeliveryTag(), false, requeue);
+                        } else {
+                                lastSucceeded = Math.max(lastSucceeded, properties.getDeliveryTag());
+                        }
+                }
+                if (lastSucceeded >= 0) {
+                        channel.basicAck(lastSucceeded, true);
+                }
+        }
+
+        // Copies the message to the parking queue; true once the broker has confirmed it
+        private boolean park(Message message) {
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                try {
+                        message.getMessageProperties().setHeader("x-parked-from", QUEUE);
+                        CorrelationData correlation = new CorrelationData();
+                        rabbitTemplate.send("", RabbitMQConfig.TRANSACTION_PARKING_QUEUE, message, correlation);
+                        if (rabbitTemplate.getConnectionFactory().isPublisherConfirms()
+                                        && !correlation.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                                                        .isAck()) {
+                                throw new IllegalStateException("parking queue publish was nacked");
+                        }
+                        log.error("Transaction event parked in {} after its redelivery failed: {}",
+                                        RabbitMQConfig.TRANSACTION_PARKING_QUEUE, body);
+                        return true;
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                        log.error("Could not park transaction event, requeueing it: {} ({})", body, e.getMessage());
+                }
+                return false;
+        }
+
+        private void recordActivity(CreatedTransaction transaction) {
+                memberActivityStore.record(transaction.memberId(), transaction.transactionId(),
+                                transaction.activityDate(), transaction.amount());
+        }
+
+        // Tier and role from the local cache; member-service only until its snapshot is loaded
+        private MemberTierCache.Standing standing(Long memberId) {
+                MemberTierCache.Standing standing = memberTierCache.isReady() ? memberTierCache.get(memberId)
+                                : memberTierCache.fetch(memberId);
+                if (standing == null) {
+                        log.warn("Tier of member {} unknown, evaluating as BRONZE", memberId);
+                }
+                return standing;
+        }
 
-                // Evaluate rules via Drools service (for bonus points only)
-                com.lms.reward.model.TransactionFact evaluatedFact = ruleClient.evaluateRules(request);
+        private static TransactionFact toFact(CreatedTransaction transaction, MemberTierCache.Standing standing) {
+                return TransactionFact.builder()
+                                .memberId(transaction.memberId())
+                                .amount(transaction.amount())
+                                .paymentMethod(transaction.paymentMethod())
+                                .productCategory(transaction.productCategory())
+                                .memberTier(standing != null ? standing.tier() : "BRONZE")
+                                .role(standing != null && standing.role() != null ? standing.role() : "CUSTOMER")
+                                .build();
+        }
 
+        private PointsEarnedEvent award(CreatedTransaction transaction, TransactionFact fact,
+                        TransactionFact evaluatedFact) {
                 // Calculate base points using tiered system
-                int basePoints = tieredPointCalculationService.calculatePoints(amount, fact.getMemberTier());
+                int basePoints = tieredPointCalculationService.calculatePoints(transaction.amount(),
+                                fact.getMemberTier());
 
                 // Add any bonus points from rules
                 int finalPoints = basePoints + evaluatedFact.getBonusPoints();
 
-                log.info("Calculated rewards for transaction {}: BasePoints={}, BonusPoints={}, TotalPoints={}, Tier={}, RewardType={}, Discount={}%",
-                                transactionId, basePoints, evaluatedFact.getBonusPoints(), finalPoints,
+                log.info("Calculated rewards for transaction {}: BasePoints={}, BonusPoints={}{}, TotalPoints={}, Tier={}, RewardType={}, Discount={}%",
+                                transaction.transactionId(), basePoints, evaluatedFact.getBonusPoints(),
+                                evaluatedFact.isDegraded() ? " (degraded)" : "", finalPoints,
                                 fact.getMemberTier(), evaluatedFact.getRewardType(),
                                 evaluatedFact.getDiscountPercentage());
 
-                pointsEarnedProducer.sendPointsEarned(com.lms.reward.event.PointsEarnedEvent.builder()
-                                .memberId(memberId)
-                                .transactionId(transactionId)
+                return PointsEarnedEvent.builder()
+                                .memberId(transaction.memberId())
+                                .transactionId(transaction.transactionId())
                                 .pointsEarned(finalPoints)
                                 .reason("Tiered loyalty points (Tier: " + fact.getMemberTier() + ")")
-                                .build());
+                                .build();
+        }
+
+        record CreatedTransaction(Long memberId, Long transactionId, BigDecimal amount, String paymentMethod,
+                        String productCategory, LocalDateTime transactionDate) {
+
+                static CreatedTransaction of(Map<?, ?> event) {
+                        Object transactionDate = event.get("transactionDate");
+                        return new CreatedTransaction(
+                                        ((Number) event.get("memberId")).longValue(),
+                                        ((Number) event.get("transactionId")).longValue(),
+                                        BigDecimal.valueOf(((Number) event.get("amount")).doubleValue()),
+                                        (String) event.get("paymentMethod"),
+                                        (String) event.get("productCategory"),
+                                        transactionDate != null ? LocalDateTime.parse(transactionDate.toString())
+                                                        : null);
+                }
+
+                // Events without a date are counted on the day they arrive
+                LocalDateTime activityDate() {
+                        return transactionDate != null ? transactionDate : LocalDateTime.now();
+                }
         }
 }
@@ -0,0 +1,19 @@
+package com.lms.reward.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyActivity {
+    private Long memberId;
+    private LocalDate day;
+    private long transactionCount;
+    private BigDecimal totalAmount;
+    private Long lastTransactionId;
+}
@@ -0,0 +1,26 @@
+package com.lms.reward.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A transaction awarded from a degraded rule evaluation, queued on
+ * reward.reconciliation.queue to be evaluated again by the rule engine.
+ * The request is the one the degraded evaluation saw, activity included.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DegradedAward {
+    private Long transactionId;
+    private RuleEvaluationRequest request;
+    private int bonusPointsAwarded;
+    private Instant degradedAt;
+    // Reconciliations that came back degraded while the rule engine was up
+    private int attempts;
+}
@@ -0,0 +1,46 @@
+package com.lms.reward.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Checkpointed day bucket of MemberActivityStore; written with JDBC upserts.
+ */
+@Entity
+@Table(name = "member_activity_day", uniqueConstraints = @UniqueConstraint(columnNames = {"member_id", "day"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberActivityDay {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "transaction_count", nullable = false)
+    private int transactionCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+}
@@ -0,0 +1,23 @@
+package com.lms.reward.model;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A member's tier and role as published on member.changes.exchange and
+ * streamed by member-service's tier snapshot. changedAt is epoch millis.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberTierChange {
+    // The member resource names it id
+    @JsonAlias("id")
+    private Long memberId;
+    private String tier;
+    private String role;
+    private boolean deleted;
+    private long changedAt;
+}
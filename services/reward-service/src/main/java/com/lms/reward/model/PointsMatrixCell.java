@@ -0,0 +1,40 @@
+package com.lms.reward.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Base points of a transaction for one tier and spend range. A range covers
+ * amounts up to and including maxAmount, above the next lower maxAmount;
+ * the open-ended top range has no maxAmount. Read by PointsMatrixStore.
+ */
+@Entity
+@Table(name = "points_matrix")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointsMatrixCell {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String tier;
+
+    @Column(name = "max_amount", precision = 19, scale = 2)
+    private BigDecimal maxAmount;
+
+    @Column(nullable = false)
+    private int points;
+}
@@ -0,0 +1,18 @@
+package com.lms.reward.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionActivity {
+    private Long transactionId;
+    private Long memberId;
+    private LocalDate day;
+    private BigDecimal amount;
+}
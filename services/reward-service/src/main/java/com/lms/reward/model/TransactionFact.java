@@ -26,4 +26,7 @@ public class TransactionFact {
     private String rewardType = "POINTS";
     @Builder.Default
     private double discountPercentage = 0.0;
+
+    // Evaluated locally against the cached simple rules while the rule engine was unavailable
+    private boolean degraded;
 }
@@ -0,0 +1,143 @@
+package com.lms.reward.service;
+
+import com.lms.reward.model.RuleEvaluationRequest;
+import com.lms.reward.model.TransactionFact;
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.engine.SimpleRuleEvaluator;
+import com.lms.rule.model.Rule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for rule-engine-service while RuleClient's ruleEngine circuit
+ * breaker is open or a call fails.
+ *
+ * The rule definitions are pulled from rule-engine-service every
+ * rules.degraded.refresh-interval-ms and compiled into a local
+ * {@link RuleSnapshot}; a failed pull keeps the last copy. Only its simple
+ * (field-based) rules are applied, DRL rules are not, so every result is
+ * marked degraded and the transaction is reconciled once the rule engine is
+ * back (see DegradedAwardReconciler). Without a copy the transaction is
+ * returned unchanged, still marked degraded.
+ */
+@Service
+@ConditionalOnProperty(name = "rules.evaluation-mode", havingValue = "HTTP", matchIfMissing = true)
+@Slf4j
+public class DegradedRuleEvaluator {
+    private static final String RULES_URL = "http://localhost:8083/api/v1/rules";
+
+    private final RestTemplate restTemplate;
+    private final Counter evaluations;
+
+    @Value("${rules.degraded.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rules.degraded.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    private volatile List<Rule> rules;
+    private volatile RuleSnapshot snapshot;
+    private long version;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "degraded-rules");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DegradedRuleEvaluator(MeterRegistry meterRegistry,
+            @Value("${rules.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${rules.http.read-timeout-ms:2000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.evaluations = Counter.builder("loyalty.rewards.rules.degraded.evaluations")
+                .description("Transactions evaluated against the local rule copy while the rule engine was unavailable")
+                .register(meterRegistry);
+        Gauge.builder("loyalty.rewards.rules.degraded.snapshot.age", this,
+                e -> e.snapshot != null ? Duration.between(e.snapshot.getBuiltAt(), Instant.now())
+                        .toSeconds() : -1)
+                .description("Seconds since the local rule copy was pulled; -1 before the first pull")
+                .register(meterRegistry);
+    }
+
+    @org.springframework.context.event.EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return a new evaluated transaction marked degraded; the request is not modified
+     */
+    public TransactionFact evaluate(RuleEvaluationRequest request) {
+        evaluations.increment();
+        TransactionFact transaction = request.getTransaction();
+        com.lms.rule.model.TransactionFact fact = RuleFacts.toRuleFact(transaction);
+        RuleSnapshot current = current();
+        if (current != null) {
+            SimpleRuleEvaluator.evaluate(current, fact, RuleFacts.toRuleActivity(request.getActivity()));
+        }
+        TransactionFact result = RuleFacts.fromRuleFact(transaction, fact);
+        result.setDegraded(true);
+        return result;
+    }
+
+    // A copy pulled before a validity transition is rebuilt for the rules active now
+    private RuleSnapshot current() {
+        RuleSnapshot current = snapshot;
+        if (current != null && current.getNextTransition() != null
+                && !LocalDateTime.now().isBefore(current.getNextTransition())) {
+            synchronized (this) {
+                if (snapshot == current) {
+                    snapshot = RuleSnapshot.build(++version, rules);
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void refresh() {
+        try {
+            Rule[] pulled = restTemplate.getForObject(RULES_URL, Rule[].class);
+            if (pulled == null) {
+                return;
+            }
+            List<Rule> latest = List.of(pulled);
+            synchronized (this) {
+                rules = latest;
+                snapshot = RuleSnapshot.build(++version, latest);
+            }
+            log.debug("Local rule copy refreshed: {} rules, {} simple rules active", latest.size(),
+                    snapshot.getSimpleRules().size());
+        } catch (Exception e) {
+            log.warn("Could not refresh the local rule copy{}: {}", snapshot != null ? ", keeping the last one" : "",
+                    e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
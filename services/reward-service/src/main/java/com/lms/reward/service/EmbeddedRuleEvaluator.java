@@ -0,0 +1,47 @@
+package com.lms.reward.service;
+
+import com.lms.reward.model.RuleEvaluationRequest;
+import com.lms.reward.model.TransactionFact;
+import com.lms.rule.service.RuleMatcherService;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Evaluates rules in process with the rule engine's matcher, against rules
+ * loaded from the shared rules table (see EmbeddedRuleEngineConfig).
+ */
+@RequiredArgsConstructor
+public class EmbeddedRuleEvaluator implements RuleEvaluator {
+    private final RuleMatcherService ruleMatcherService;
+
+    @Override
+    public TransactionFact evaluateRules(RuleEvaluationRequest request) {
+        TransactionFact transaction = request.getTransaction();
+        com.lms.rule.model.TransactionFact fact = RuleFacts.toRuleFact(transaction);
+        ruleMatcherService.evaluateRules(fact, RuleFacts.toRuleActivity(request.getActivity()));
+        return RuleFacts.fromRuleFact(transaction, fact);
+    }
+
+    @Override
+    public List<TransactionFact> evaluateBatch(List<RuleEvaluationRequest> requests) {
+        List<com.lms.rule.model.RuleEvaluationRequest> ruleRequests = new ArrayList<>(requests.size());
+        for (RuleEvaluationRequest request : requests) {
+            com.lms.rule.model.RuleEvaluationRequest ruleRequest = new com.lms.rule.model.RuleEvaluationRequest();
+            ruleRequest.setTransaction(RuleFacts.toRuleFact(request.getTransaction()));
+            ruleRequest.setActivity(RuleFacts.toRuleActivity(request.getActivity()));
+            ruleRequests.add(ruleRequest);
+        }
+        List<TransactionFact> results = new ArrayList<>(requests.size());
+        for (CompletableFuture<List<com.lms.rule.model.TransactionFact>> chunk : ruleMatcherService
+                .evaluateBatch(ruleRequests)) {
+            for (com.lms.rule.model.TransactionFact fact : chunk.join()) {
+                results.add(fact != null
+                        ? RuleFacts.fromRuleFact(requests.get(results.size()).getTransaction(), fact) : null);
+            }
+        }
+        return results;
+    }
+}
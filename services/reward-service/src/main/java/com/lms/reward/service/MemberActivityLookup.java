@@ -0,0 +1,143 @@
+package com.lms.reward.service;
+
+import com.lms.reward.client.TransactionClient;
+import com.lms.reward.model.MemberActivityFact;
+import com.lms.reward.model.TransactionSummary;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Member activity for a transaction: from {@link MemberActivityStore} when
+ * it is loaded, otherwise from transaction-service's monthly and quarterly
+ * summaries. With rewards.lookup.mode ASYNC the two summary calls run in
+ * parallel on a bounded pool, each limited to rewards.lookup.timeout-ms, so
+ * the lookup takes about as long as the slower one; SEQUENTIAL issues them
+ * one after the other on the listener thread. A batch of transactions is
+ * looked up with one bulk summary call per period for all its members.
+ */
+@Service
+@Slf4j
+public class MemberActivityLookup {
+    private final MemberActivityStore memberActivityStore;
+    private final TransactionClient transactionClient;
+    private final boolean async;
+    private final long timeoutMs;
+    private final ExecutorService executor;
+
+    public MemberActivityLookup(MemberActivityStore memberActivityStore, TransactionClient transactionClient,
+            @Value("${rewards.lookup.mode:SEQUENTIAL}") String mode,
+            @Value("${rewards.lookup.timeout-ms:2000}") long timeoutMs,
+            @Value("${rewards.lookup.pool-size:16}") int poolSize) {
+        this.memberActivityStore = memberActivityStore;
+        this.transactionClient = transactionClient;
+        this.async = "ASYNC".equalsIgnoreCase(mode);
+        this.timeoutMs = timeoutMs;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = async ? Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "reward-lookup-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public MemberActivityFact activity(Long memberId) {
+        MemberActivityFact local = memberActivityStore.activity(memberId);
+        if (local != null) {
+            return local;
+        }
+        if (!async) {
+            return toActivity(memberId, transactionClient.getSummary(memberId, "MONTHLY"),
+                    transactionClient.getSummary(memberId, "QUARTERLY"));
+        }
+        return both(() -> transactionClient.getSummary(memberId, "MONTHLY"),
+                () -> transactionClient.getSummary(memberId, "QUARTERLY"),
+                (monthly, quarterly) -> toActivity(memberId, monthly, quarterly));
+    }
+
+    /**
+     * @return the activity of each member, from the store or from bulk summary calls for those it lacks
+     */
+    public Map<Long, MemberActivityFact> activities(Collection<Long> memberIds) {
+        Map<Long, MemberActivityFact> activities = new HashMap<>(memberIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long memberId : memberIds) {
+            MemberActivityFact local = memberActivityStore.activity(memberId);
+            if (local != null) {
+                activities.put(memberId, local);
+            } else {
+                missing.add(memberId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return activities;
+        }
+        List<TransactionSummary> monthly;
+        List<TransactionSummary> quarterly;
+        if (!async) {
+            monthly = transactionClient.getSummaries(missing, "MONTHLY");
+            quarterly = transactionClient.getSummaries(missing, "QUARTERLY");
+        } else {
+            List<List<TransactionSummary>> summaries = both(() -> transactionClient.getSummaries(missing, "MONTHLY"),
+                    () -> transactionClient.getSummaries(missing, "QUARTERLY"), List::of);
+            monthly = summaries.get(0);
+            quarterly = summaries.get(1);
+        }
+        for (int i = 0; i < missing.size(); i++) {
+            activities.put(missing.get(i), toActivity(missing.get(i), monthly.get(i), quarterly.get(i)));
+        }
+        return activities;
+    }
+
+    private <T, R> R both(Supplier<T> monthlyLookup, Supplier<T> quarterlyLookup, BiFunction<T, T, R> combiner) {
+        CompletableFuture<T> monthly = call(monthlyLookup);
+        CompletableFuture<T> quarterly = call(quarterlyLookup);
+        try {
+            return combiner.apply(monthly.join(), quarterly.join());
+        } catch (CompletionException e) {
+            // Fail the message as the sequential calls would, with the underlying cause
+            monthly.cancel(true);
+            quarterly.cancel(true);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<T> lookup) {
+        return CompletableFuture.supplyAsync(lookup, executor).orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static MemberActivityFact toActivity(Long memberId, TransactionSummary monthly,
+            TransactionSummary quarterly) {
+        return MemberActivityFact.builder()
+                .memberId(memberId)
+                .monthlyTransactionCount(monthly.getTransactionCount())
+                .monthlyTotalSpent(monthly.getTotalAmount())
+                .quarterlyTransactionCount(quarterly.getTransactionCount())
+                .quarterlyTotalSpent(quarterly.getTotalAmount())
+                .transactionCount(monthly.getTransactionCount())
+                .totalSpent(monthly.getTotalAmount())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
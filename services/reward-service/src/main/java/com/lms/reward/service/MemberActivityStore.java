@@ -0,0 +1,403 @@
+package com.lms.reward.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.reward.client.TransactionClient;
+import com.lms.reward.model.DailyActivity;
+import com.lms.reward.model.MemberActivityFact;
+import com.lms.reward.model.TransactionActivity;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Rolling monthly and quarterly activity per member, maintained from
+ * transaction.created events (rewards.activity.enabled), so evaluating a
+ * transaction needs no summary calls to transaction-service. Each instance
+ * receives every event on its own queue (TransactionActivityConsumer), not
+ * only those of the shared queue it happens to consume; the transactions it
+ * awards are recorded from both, and counted once.
+ *
+ * Members are held in a striped open-addressing table keyed by the primitive
+ * member id; each member's transactions are bucketed by day over the last
+ * three months ({@link MemberActivityWindow}). Changed members are
+ * checkpointed to member_activity_day.
+ *
+ * On startup the checkpoint is loaded up to the day before its latest day,
+ * and the days from there on are rebuilt in full from transaction-service,
+ * so transactions with a lower id that committed after the checkpoint are
+ * picked up. Without a checkpoint the whole horizon is rebuilt. Yesterday
+ * and today are re-read transaction by transaction rather than as daily
+ * totals: their ids are recorded, so an event for one of them is recognised
+ * as counted, and one for a transaction committed after the re-read is
+ * counted ({@link MemberActivityWindow} describes the older days). Until
+ * loading is done {@link #activity} returns null and callers fall back to the
+ * summary calls; events received meanwhile are applied afterwards.
+ */
+@Service
+@Slf4j
+public class MemberActivityStore {
+    private static final int STRIPES = 64;
+    private static final int HORIZON_MONTHS = 3;
+
+    private static final String LAST_DAY_SQL = "SELECT MAX(day) FROM member_activity_day WHERE day >= ?";
+    private static final String LOAD_SQL = "SELECT member_id, day, transaction_count, total_amount, "
+            + "last_transaction_id FROM member_activity_day WHERE day >= ? AND day < ?";
+    private static final String UPSERT_SQL = "INSERT INTO member_activity_day "
+            + "(member_id, day, transaction_count, total_amount, last_transaction_id) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (member_id, day) DO UPDATE SET transaction_count = EXCLUDED.transaction_count, "
+            + "total_amount = EXCLUDED.total_amount, last_transaction_id = EXCLUDED.last_transaction_id";
+    private static final String EXPIRE_SQL = "DELETE FROM member_activity_day WHERE day < ?";
+
+    private final TransactionClient transactionClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rewards.activity.enabled:false}")
+    private boolean enabled;
+
+    @Value("${rewards.activity.checkpoint-interval-ms:60000}")
+    private long checkpointIntervalMs;
+
+    @Value("${rewards.activity.retry-interval-ms:30000}")
+    private long retryIntervalMs;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Queue<PendingTransaction> pending = new ConcurrentLinkedQueue<>();
+    private volatile boolean ready;
+    // First epoch day re-read transaction by transaction on the last load
+    private volatile int idsFrom;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "member-activity");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MemberActivityStore(TransactionClient transactionClient, JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper) {
+        this.transactionClient = transactionClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @org.springframework.context.event.EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            executor.execute(this::load);
+        }
+    }
+
+    /**
+     * Counts a created transaction. An event recorded before, or a transaction
+     * re-read on startup, is not counted again.
+     */
+    public void record(long memberId, long transactionId, LocalDateTime transactionDate, BigDecimal amount) {
+        if (!enabled) {
+            return;
+        }
+        PendingTransaction transaction = new PendingTransaction(memberId, transactionId,
+                (int) transactionDate.toLocalDate().toEpochDay(), toCents(amount));
+        if (!ready) {
+            pending.add(transaction);
+            // Loading may have finished and drained the queue while this was added
+            if (!ready) {
+                return;
+            }
+            applyPending();
+            return;
+        }
+        apply(transaction);
+    }
+
+    /**
+     * @return the member's rolling activity, or null until the store is loaded
+     */
+    public MemberActivityFact activity(long memberId) {
+        if (!ready) {
+            return null;
+        }
+        LocalDate today = LocalDate.now();
+        long[] totals = new long[4];
+        MemberActivityWindow window = stripe(memberId).get(memberId);
+        if (window != null) {
+            window.sum((int) today.minusMonths(1).toEpochDay(), (int) today.minusMonths(HORIZON_MONTHS).toEpochDay(),
+                    totals);
+        }
+        BigDecimal monthlySpent = BigDecimal.valueOf(totals[1], 2);
+        return MemberActivityFact.builder()
+                .memberId(memberId)
+                .monthlyTransactionCount(totals[0])
+                .monthlyTotalSpent(monthlySpent)
+                .quarterlyTransactionCount(totals[2])
+                .quarterlyTotalSpent(BigDecimal.valueOf(totals[3], 2))
+                .transactionCount(totals[0])
+                .totalSpent(monthlySpent)
+                .build();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void load() {
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate since = today.minusMonths(HORIZON_MONTHS);
+            int horizon = (int) since.toEpochDay();
+            LocalDate rebuildFrom = rebuildFrom(since);
+            LocalDate rereadFrom = today.minusDays(1).isAfter(rebuildFrom) ? today.minusDays(1) : rebuildFrom;
+            idsFrom = (int) rereadFrom.toEpochDay();
+            long checkpointed = loadCheckpoint(since, rebuildFrom, horizon);
+            long streamed = rereadFrom.isAfter(rebuildFrom) ? loadFromTransactions(rebuildFrom, rereadFrom, horizon)
+                    : 0;
+            long reread = rereadTransactions(rereadFrom, horizon);
+            log.info("Member activity loaded: {} day buckets from checkpoint, {} from transaction-service "
+                    + "since {}, {} transactions since {}", checkpointed, streamed, rebuildFrom, reread, rereadFrom);
+        } catch (Exception e) {
+            log.warn("Member activity load failed, retrying in {} ms: {}", retryIntervalMs, e.getMessage());
+            clear();
+            executor.schedule(this::load, retryIntervalMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+        ready = true;
+        applyPending();
+        executor.scheduleWithFixedDelay(this::checkpoint, checkpointIntervalMs, checkpointIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // The checkpoint's latest day, and the one before for transactions dated just before midnight, are re-read
+    private LocalDate rebuildFrom(LocalDate since) {
+        Date lastDay = jdbcTemplate.queryForObject(LAST_DAY_SQL, Date.class, Date.valueOf(since));
+        if (lastDay == null) {
+            return since;
+        }
+        LocalDate from = lastDay.toLocalDate().minusDays(1);
+        return from.isAfter(since) ? from : since;
+    }
+
+    private long loadCheckpoint(LocalDate since, LocalDate until, int horizon) {
+        long[] rows = new long[1];
+        jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+            window(rs.getLong("member_id")).load((int) rs.getDate("day").toLocalDate().toEpochDay(),
+                    rs.getInt("transaction_count"), toCents(rs.getBigDecimal("total_amount")),
+                    rs.getLong("last_transaction_id"), horizon, true);
+            rows[0]++;
+        }, Date.valueOf(since), Date.valueOf(until));
+        return rows[0];
+    }
+
+    // Daily totals of the days in between; the checkpoint rows of those days are replaced on the next checkpoint
+    private long loadFromTransactions(LocalDate since, LocalDate until, int horizon) throws IOException {
+        long[] rows = new long[1];
+        try (feign.Response response = transactionClient.getDailyActivity(since.toString(), until.toString(), 0L);
+                InputStream body = response.body().asInputStream()) {
+            if (response.status() != 200) {
+                throw new IOException("transaction-service returned " + response.status());
+            }
+            readArray(body, DailyActivity.class, activity -> {
+                window(activity.getMemberId()).load((int) activity.getDay().toEpochDay(),
+                        (int) activity.getTransactionCount(), toCents(activity.getTotalAmount()),
+                        activity.getLastTransactionId(), horizon, false);
+                rows[0]++;
+            });
+        }
+        return rows[0];
+    }
+
+    // Every transaction from the given day on, recorded by id like an event
+    private long rereadTransactions(LocalDate since, int horizon) throws IOException {
+        long[] rows = new long[1];
+        int from = idsFrom;
+        try (feign.Response response = transactionClient.getActivityTransactions(since.toString());
+                InputStream body = response.body().asInputStream()) {
+            if (response.status() != 200) {
+                throw new IOException("transaction-service returned " + response.status());
+            }
+            readArray(body, TransactionActivity.class, transaction -> {
+                window(transaction.getMemberId()).record(transaction.getTransactionId(),
+                        (int) transaction.getDay().toEpochDay(), toCents(transaction.getAmount()), horizon, from);
+                rows[0]++;
+            });
+        }
+        return rows[0];
+    }
+
+    private <T> void readArray(InputStream body, Class<T> type, Consumer<T> consumer) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of " + type.getSimpleName());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(objectMapper.readValue(parser, type));
+            }
+        }
+    }
+
+    private void applyPending() {
+        PendingTransaction transaction;
+        while ((transaction = pending.poll()) != null) {
+            apply(transaction);
+        }
+    }
+
+    private void apply(PendingTransaction transaction) {
+        int horizon = (int) LocalDate.now().minusMonths(HORIZON_MONTHS).toEpochDay();
+        window(transaction.memberId()).record(transaction.transactionId(), transaction.day(),
+                transaction.amountCents(), horizon, idsFrom);
+    }
+
+    /**
+     * Writes the day buckets of members changed since the last checkpoint
+     * and deletes days that left the horizon.
+     */
+    void checkpoint() {
+        List<Object[]> rows = new ArrayList<>();
+        List<MemberActivityWindow> written = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.forEach((memberId, window) -> {
+                MemberActivityWindow.Buckets buckets = window.takeChanges();
+                if (buckets != null) {
+                    written.add(window);
+                    for (int i = 0; i < buckets.days().length; i++) {
+                        rows.add(new Object[] {memberId, Date.valueOf(LocalDate.ofEpochDay(buckets.days()[i])),
+                                buckets.counts()[i], BigDecimal.valueOf(buckets.cents()[i], 2),
+                                buckets.lastIds()[i]});
+                    }
+                }
+            });
+        }
+        try {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            }
+            jdbcTemplate.update(EXPIRE_SQL, Date.valueOf(LocalDate.now().minusMonths(HORIZON_MONTHS)));
+            log.debug("Member activity checkpoint: {} members, {} day buckets", written.size(), rows.size());
+        } catch (Exception e) {
+            log.warn("Member activity checkpoint failed: {}", e.getMessage());
+            written.forEach(MemberActivityWindow::markDirty);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        if (ready) {
+            checkpoint();
+        }
+    }
+
+    private void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private MemberActivityWindow window(long memberId) {
+        return stripe(memberId).getOrCreate(memberId);
+    }
+
+    private Stripe stripe(long memberId) {
+        return stripes[(int) (mix(memberId) >>> 58)];
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private record PendingTransaction(long memberId, long transactionId, int day, long amountCents) {
+    }
+
+    private interface WindowVisitor {
+        void visit(long memberId, MemberActivityWindow window);
+    }
+
+    // Open addressing with linear probing; member ids stay primitive
+    private static final class Stripe {
+        private long[] keys = new long[16];
+        private MemberActivityWindow[] values = new MemberActivityWindow[16];
+        private int size;
+
+        synchronized MemberActivityWindow get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = (int) mix(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        synchronized MemberActivityWindow getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            for (; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            MemberActivityWindow window = new MemberActivityWindow();
+            keys[slot] = key;
+            values[slot] = window;
+            if (++size * 4 > keys.length * 3) {
+                grow();
+            }
+            return window;
+        }
+
+        synchronized void forEach(WindowVisitor visitor) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] != null) {
+                    visitor.visit(keys[slot], values[slot]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            MemberActivityWindow[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new MemberActivityWindow[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
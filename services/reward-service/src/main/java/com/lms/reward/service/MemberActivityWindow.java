@@ -0,0 +1,184 @@
+package com.lms.reward.service;
+
+import java.util.Arrays;
+
+/**
+ * One member's transactions over the rolling horizon, as day buckets in
+ * parallel primitive arrays sorted by epoch day. Only days with
+ * transactions take space, so a typical member needs a few dozen bytes.
+ *
+ * Every recorded transaction id is kept, sorted, until its day leaves the
+ * horizon, and an id already kept is not counted again. Days from idsFrom on
+ * are built from recorded ids alone, so on those days a transaction is
+ * counted once however late it commits. Days before it come from loaded
+ * totals, which carry no ids: there an id at or below the day's last counted
+ * id is taken as already counted, which drops a transaction that commits
+ * after one with a higher id on the same, already loaded day.
+ */
+final class MemberActivityWindow {
+
+    private int[] days = new int[2];
+    private int[] counts = new int[2];
+    private long[] cents = new long[2];
+    private long[] lastIds = new long[2];
+    private int size;
+
+    private long[] recordedIds = new long[2];
+    private int[] recordedDays = new int[2];
+    private int recordedSize;
+    private boolean dirty;
+
+    /**
+     * Adds one transaction, from an event or a re-read of recent days.
+     *
+     * @param idsFrom first epoch day built from recorded ids rather than loaded totals
+     * @return false when the transaction has already been counted
+     */
+    synchronized boolean record(long transactionId, int day, long amountCents, int horizon, int idsFrom) {
+        evictBefore(horizon);
+        if (day < horizon) {
+            return false;
+        }
+        if (day < idsFrom) {
+            int bucket = Arrays.binarySearch(days, 0, size, day);
+            if (bucket >= 0 && transactionId <= lastIds[bucket]) {
+                return false;
+            }
+        }
+        int index = Arrays.binarySearch(recordedIds, 0, recordedSize, transactionId);
+        if (index >= 0) {
+            return false;
+        }
+        insertRecorded(-index - 1, transactionId, day);
+        add(day, 1, amountCents, transactionId, horizon);
+        return true;
+    }
+
+    /**
+     * Adds loaded totals for one day, which include every transaction of this
+     * member up to lastTransactionId.
+     */
+    synchronized void load(int day, int count, long amountCents, long lastTransactionId, int horizon,
+            boolean persisted) {
+        add(day, count, amountCents, lastTransactionId, horizon);
+        if (persisted) {
+            dirty = false;
+        }
+    }
+
+    /**
+     * Sums the buckets on or after each start day into {monthCount, monthCents, quarterCount, quarterCents}.
+     */
+    synchronized void sum(int monthStart, int quarterStart, long[] totals) {
+        Arrays.fill(totals, 0);
+        for (int i = size - 1; i >= 0 && days[i] >= quarterStart; i--) {
+            totals[2] += counts[i];
+            totals[3] += cents[i];
+            if (days[i] >= monthStart) {
+                totals[0] += counts[i];
+                totals[1] += cents[i];
+            }
+        }
+    }
+
+    /**
+     * Copies the buckets if they changed since the last call, for a checkpoint.
+     *
+     * @return the buckets, or null when unchanged
+     */
+    synchronized Buckets takeChanges() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return new Buckets(Arrays.copyOf(days, size), Arrays.copyOf(counts, size), Arrays.copyOf(cents, size),
+                Arrays.copyOf(lastIds, size));
+    }
+
+    // A failed checkpoint is retried with the next one
+    synchronized void markDirty() {
+        dirty = true;
+    }
+
+    private void add(int day, int count, long amountCents, long lastId, int horizon) {
+        evictBefore(horizon);
+        if (day < horizon) {
+            return;
+        }
+        int index = Arrays.binarySearch(days, 0, size, day);
+        if (index < 0) {
+            index = -index - 1;
+            insertAt(index, day);
+        }
+        counts[index] += count;
+        cents[index] += amountCents;
+        lastIds[index] = Math.max(lastIds[index], lastId);
+        dirty = true;
+    }
+
+    private void insertRecorded(int index, long transactionId, int day) {
+        if (recordedSize == recordedIds.length) {
+            recordedIds = Arrays.copyOf(recordedIds, recordedSize * 2);
+            recordedDays = Arrays.copyOf(recordedDays, recordedSize * 2);
+        }
+        int tail = recordedSize - index;
+        System.arraycopy(recordedIds, index, recordedIds, index + 1, tail);
+        System.arraycopy(recordedDays, index, recordedDays, index + 1, tail);
+        recordedIds[index] = transactionId;
+        recordedDays[index] = day;
+        recordedSize++;
+    }
+
+    private void insertAt(int index, int day) {
+        if (size == days.length) {
+            int capacity = size * 2;
+            days = Arrays.copyOf(days, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            lastIds = Arrays.copyOf(lastIds, capacity);
+        }
+        int tail = size - index;
+        System.arraycopy(days, index, days, index + 1, tail);
+        System.arraycopy(counts, index, counts, index + 1, tail);
+        System.arraycopy(cents, index, cents, index + 1, tail);
+        System.arraycopy(lastIds, index, lastIds, index + 1, tail);
+        days[index] = day;
+        counts[index] = 0;
+        cents[index] = 0;
+        lastIds[index] = 0;
+        size++;
+    }
+
+    // Expired days are dropped here; their checkpoint rows are deleted by horizon
+    private void evictBefore(int horizon) {
+        int expired = 0;
+        while (expired < size && days[expired] < horizon) {
+            expired++;
+        }
+        if (expired > 0) {
+            int remaining = size - expired;
+            System.arraycopy(days, expired, days, 0, remaining);
+            System.arraycopy(counts, expired, counts, 0, remaining);
+            System.arraycopy(cents, expired, cents, 0, remaining);
+            System.arraycopy(lastIds, expired, lastIds, 0, remaining);
+            size = remaining;
+            evictRecordedBefore(horizon);
+        }
+    }
+
+    // Recorded ids are sorted by id, not day, so their expired days are compacted out
+    private void evictRecordedBefore(int horizon) {
+        int kept = 0;
+        for (int i = 0; i < recordedSize; i++) {
+            if (recordedDays[i] >= horizon) {
+                recordedIds[kept] = recordedIds[i];
+                recordedDays[kept] = recordedDays[i];
+                kept++;
+            }
+        }
+        recordedSize = kept;
+    }
+
+    record Buckets(int[] days, int[] counts, long[] cents, long[] lastIds) {
+    }
+}
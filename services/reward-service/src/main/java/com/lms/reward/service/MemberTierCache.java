@@ -0,0 +1,275 @@
+package com.lms.reward.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.reward.client.MemberClient;
+import com.lms.reward.model.MemberTierChange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tier and role of every member (rewards.member-tiers.enabled), fed by the
+ * changes member-service publishes on member.changes.exchange, so resolving
+ * a transaction's member needs no call to member-service.
+ *
+ * Members are held in a striped open-addressing table keyed by the primitive
+ * member id. Each entry is a short code for its (tier, role) pair, shared by
+ * all members with that pair, and the changedAt of the change it came from.
+ * A change only replaces an older one, so events and snapshot rows can be
+ * applied in any order; a deleted member keeps its entry as a tombstone.
+ *
+ * On startup, and every rewards.member-tiers.refresh-interval-ms to recover
+ * changes whose events were lost, member-service's tier snapshot is streamed
+ * into the table. Until the first snapshot is loaded {@link #isReady} is
+ * false and callers ask member-service instead.
+ */
+@Service
+@Slf4j
+public class MemberTierCache {
+    private static final int STRIPES = 64;
+    // Codes 0 (empty slot) and 1 (deleted) carry no standing
+    private static final short EMPTY = 0;
+    private static final short DELETED = 1;
+
+    private final MemberClient memberClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rewards.member-tiers.enabled:false}")
+    private boolean enabled;
+
+    @Value("${rewards.member-tiers.refresh-interval-ms:600000}")
+    private long refreshIntervalMs;
+
+    @Value("${rewards.member-tiers.retry-interval-ms:30000}")
+    private long retryIntervalMs;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private volatile Standing[] standings = new Standing[2];
+    private volatile boolean ready;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "member-tiers");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MemberTierCache(MemberClient memberClient, ObjectMapper objectMapper) {
+        this.memberClient = memberClient;
+        this.objectMapper = objectMapper;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @org.springframework.context.event.EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            executor.execute(this::load);
+        }
+    }
+
+    /**
+     * Applies a change unless the member already has a newer one.
+     */
+    public void apply(MemberTierChange change) {
+        if (!enabled || change.getMemberId() == null) {
+            return;
+        }
+        short code = change.isDeleted() || change.getTier() == null ? DELETED
+                : code(new Standing(change.getTier(), change.getRole() != null ? change.getRole() : "CUSTOMER"));
+        stripe(change.getMemberId()).putIfNewer(change.getMemberId(), code, change.getChangedAt());
+    }
+
+    /**
+     * @return the member's tier and role, or null for unknown and deleted members
+     */
+    public Standing get(long memberId) {
+        short code = stripe(memberId).get(memberId);
+        return code > DELETED ? standings[code] : null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Asks member-service for a member the cache cannot answer for yet.
+     *
+     * @return the member's tier and role, or null when it is unavailable
+     */
+    public Standing fetch(long memberId) {
+        try {
+            MemberTierChange member = memberClient.getMember(memberId);
+            return member != null && member.getTier() != null ? new Standing(member.getTier(), member.getRole())
+                    : null;
+        } catch (Exception e) {
+            log.warn("Could not fetch tier of member {}: {}", memberId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        long rows;
+        try {
+            rows = loadSnapshot();
+        } catch (Exception e) {
+            log.warn("Member tier snapshot failed, retrying in {} ms: {}", retryIntervalMs, e.getMessage());
+            executor.schedule(this::load, retryIntervalMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+        log.info("Member tier snapshot loaded: {} members, {} tier/role combinations, in {} ms", rows,
+                standings.length - 2, System.currentTimeMillis() - started);
+        if (!ready) {
+            ready = true;
+            executor.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refresh() {
+        try {
+            loadSnapshot();
+        } catch (Exception e) {
+            log.warn("Member tier refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Changes received meanwhile are kept; snapshot rows only replace older entries
+    private long loadSnapshot() throws IOException {
+        long rows = 0;
+        try (feign.Response response = memberClient.getTierSnapshot();
+                InputStream body = response.body().asInputStream();
+                JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (response.status() != 200) {
+                throw new IOException("member-service returned " + response.status());
+            }
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of member tiers");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                apply(objectMapper.readValue(parser, MemberTierChange.class));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // There are only a handful of tier/role pairs, so a scan beats hashing and codes are never reclaimed
+    private short code(Standing standing) {
+        short code = find(standings, standing);
+        if (code != EMPTY) {
+            return code;
+        }
+        synchronized (this) {
+            Standing[] current = standings;
+            code = find(current, standing);
+            if (code != EMPTY) {
+                return code;
+            }
+            if (current.length > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many member tier/role combinations");
+            }
+            Standing[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = standing;
+            standings = grown;
+            return (short) current.length;
+        }
+    }
+
+    private static short find(Standing[] candidates, Standing standing) {
+        for (int i = DELETED + 1; i < candidates.length; i++) {
+            if (candidates[i].equals(standing)) {
+                return (short) i;
+            }
+        }
+        return EMPTY;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Stripe stripe(long memberId) {
+        return stripes[(int) (mix(memberId) >>> 58)];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    public record Standing(String tier, String role) {
+    }
+
+    // Open addressing with linear probing; an EMPTY code marks a free slot
+    private static final class Stripe {
+        private long[] keys = new long[16];
+        private short[] codes = new short[16];
+        private long[] versions = new long[16];
+        private int size;
+
+        synchronized short get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = (int) mix(key) & mask; codes[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return codes[slot];
+                }
+            }
+            return EMPTY;
+        }
+
+        synchronized void putIfNewer(long key, short code, long version) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            for (; codes[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    if (version >= versions[slot]) {
+                        codes[slot] = code;
+                        versions[slot] = version;
+                    }
+                    return;
+                }
+            }
+            keys[slot] = key;
+            codes[slot] = code;
+            versions[slot] = version;
+            if (++size * 4 > keys.length * 3) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            short[] oldCodes = codes;
+            long[] oldVersions = versions;
+            keys = new long[oldKeys.length * 2];
+            codes = new short[oldKeys.length * 2];
+            versions = new long[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCodes[i] != EMPTY) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (codes[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    codes[slot] = oldCodes[i];
+                    versions[slot] = oldVersions[i];
+                }
+            }
+        }
+    }
+}
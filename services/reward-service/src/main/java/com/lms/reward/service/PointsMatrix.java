@@ -0,0 +1,190 @@
+package com.lms.reward.service;
+
+import com.lms.reward.model.PointsMatrixCell;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Immutable tier × spend-range points table. Ranges are shared by all tiers:
+ * their upper bounds are the distinct maxAmounts of all cells, so a tier
+ * that does not split a range gets the points of its own enclosing range.
+ * Amounts are compared as BigDecimal, without conversion; the bounds are
+ * kept at every common amount scale so that comparisons stay on the
+ * same-scale fast path of {@link BigDecimal#compareTo}.
+ */
+final class PointsMatrix {
+    static final String DEFAULT_TIER = "BRONZE";
+    private static final int MAX_SCALE = 4;
+
+    private final String[] tiers;
+    // Inclusive upper bound of each range but the open-ended last one
+    private final BigDecimal[] bounds;
+    // bounds rescaled to each amount scale up to MAX_SCALE; null where not exact
+    private final BigDecimal[][] scaledBounds = new BigDecimal[MAX_SCALE + 1][];
+    // points[tier][range]
+    private final int[][] points;
+    private final int defaultTier;
+
+    private PointsMatrix(String[] tiers, BigDecimal[] bounds, int[][] points) {
+        this.tiers = tiers;
+        this.bounds = bounds;
+        this.points = points;
+        int fallback = Arrays.asList(tiers).indexOf(DEFAULT_TIER);
+        this.defaultTier = Math.max(fallback, 0);
+        int boundScale = 0;
+        for (BigDecimal bound : bounds) {
+            boundScale = Math.max(boundScale, bound.scale());
+        }
+        for (int scale = boundScale; scale <= MAX_SCALE; scale++) {
+            scaledBounds[scale] = new BigDecimal[bounds.length];
+            for (int i = 0; i < bounds.length; i++) {
+                scaledBounds[scale][i] = bounds[i].setScale(scale);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when there are no cells, a tier has no
+     *         open-ended range, or a tier has two point values for one range
+     */
+    static PointsMatrix of(Collection<PointsMatrixCell> cells) {
+        if (cells.isEmpty()) {
+            throw new IllegalArgumentException("Points matrix has no cells");
+        }
+        TreeSet<BigDecimal> bounds = new TreeSet<>();
+        TreeSet<String> tiers = new TreeSet<>();
+        for (PointsMatrixCell cell : cells) {
+            tiers.add(Objects.requireNonNull(cell.getTier(), "tier"));
+            if (cell.getMaxAmount() != null) {
+                // Equal amounts of different scales are one bound
+                bounds.add(cell.getMaxAmount().stripTrailingZeros());
+            }
+        }
+        String[] tierNames = tiers.toArray(String[]::new);
+        BigDecimal[] boundValues = bounds.toArray(BigDecimal[]::new);
+        int[][] points = new int[tierNames.length][];
+        for (int t = 0; t < tierNames.length; t++) {
+            points[t] = row(tierNames[t], boundValues, cells);
+        }
+        return new PointsMatrix(tierNames, boundValues, points);
+    }
+
+    /**
+     * The matrix that was hardcoded before it moved to points_matrix.
+     */
+    static PointsMatrix defaults() {
+        return of(defaultCells());
+    }
+
+    static List<PointsMatrixCell> defaultCells() {
+        String[] tiers = {"BRONZE", "SILVER", "GOLD", "PLATINUM", "DIAMOND"};
+        BigDecimal[] maxAmounts = {BigDecimal.valueOf(100), BigDecimal.valueOf(1000), BigDecimal.valueOf(5000), null};
+        int[][] points = {{1, 2, 3, 5}, {1, 2, 4, 6}, {2, 3, 5, 8}, {3, 4, 6, 10}, {5, 6, 8, 15}};
+        List<PointsMatrixCell> cells = new ArrayList<>();
+        for (int t = 0; t < tiers.length; t++) {
+            for (int r = 0; r < maxAmounts.length; r++) {
+                cells.add(PointsMatrixCell.builder().tier(tiers[t]).maxAmount(maxAmounts[r]).points(points[t][r])
+                        .build());
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @return the points for the amount's range; unknown tiers get the BRONZE row
+     */
+    int points(BigDecimal amount, String tier) {
+        return pointsAt(tierIndex(tier), rangeIndex(amount));
+    }
+
+    int pointsAt(int tierIndex, int rangeIndex) {
+        return points[tierIndex][rangeIndex];
+    }
+
+    // First bound at or above the amount; past the last bound is the open-ended range
+    int rangeIndex(BigDecimal amount) {
+        int scale = amount.scale();
+        BigDecimal[] search = scale >= 0 && scale <= MAX_SCALE && scaledBounds[scale] != null
+                ? scaledBounds[scale]
+                : bounds;
+        int low = 0;
+        int high = search.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (search[mid].compareTo(amount) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // A handful of tiers: a scan is cheaper than hashing the name
+    int tierIndex(String tier) {
+        for (int t = 0; t < tiers.length; t++) {
+            if (tiers[t].equals(tier)) {
+                return t;
+            }
+        }
+        return defaultTier;
+    }
+
+    int rangeCount() {
+        return bounds.length + 1;
+    }
+
+    int tierCount() {
+        return tiers.length;
+    }
+
+    boolean sameAs(PointsMatrix other) {
+        return Arrays.equals(tiers, other.tiers) && Arrays.equals(bounds, other.bounds)
+                && Arrays.deepEquals(points, other.points);
+    }
+
+    // Each range takes the tier's cell with the smallest maxAmount covering it
+    private static int[] row(String tier, BigDecimal[] bounds, Collection<PointsMatrixCell> cells) {
+        int[] row = new int[bounds.length + 1];
+        for (int range = 0; range <= bounds.length; range++) {
+            BigDecimal upper = range < bounds.length ? bounds[range] : null;
+            PointsMatrixCell best = null;
+            for (PointsMatrixCell cell : cells) {
+                if (!tier.equals(cell.getTier()) || !covers(cell.getMaxAmount(), upper)) {
+                    continue;
+                }
+                if (best == null || narrower(cell.getMaxAmount(), best.getMaxAmount())) {
+                    best = cell;
+                } else if (sameBound(cell.getMaxAmount(), best.getMaxAmount())
+                        && cell.getPoints() != best.getPoints()) {
+                    throw new IllegalArgumentException("Tier " + tier + " has two point values up to "
+                            + (best.getMaxAmount() != null ? best.getMaxAmount() : "any amount"));
+                }
+            }
+            if (best == null) {
+                throw new IllegalArgumentException("Tier " + tier + " has no open-ended range");
+            }
+            row[range] = best.getPoints();
+        }
+        return row;
+    }
+
+    // A null maxAmount is unlimited
+    private static boolean covers(BigDecimal maxAmount, BigDecimal upper) {
+        return maxAmount == null || (upper != null && maxAmount.compareTo(upper) >= 0);
+    }
+
+    private static boolean narrower(BigDecimal candidate, BigDecimal current) {
+        return candidate != null && (current == null || candidate.compareTo(current) < 0);
+    }
+
+    private static boolean sameBound(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.lms.reward.service;
+
+import com.lms.reward.model.PointsMatrixCell;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The points matrix of TieredPointCalculationService, read from
+ * points_matrix and reloaded every rewards.points-matrix.refresh-interval-ms,
+ * so ranges and points change without a redeploy. An empty table is seeded
+ * with the built-in matrix; a table that does not form a valid matrix is
+ * logged and the matrix served so far is kept.
+ */
+@Service
+@Slf4j
+public class PointsMatrixStore {
+    private static final String LOAD_SQL = "SELECT tier, max_amount, points FROM points_matrix";
+    private static final String SEED_SQL = "INSERT INTO points_matrix (tier, max_amount, points) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${rewards.points-matrix.refresh-interval-ms:30000}")
+    private long refreshIntervalMs;
+
+    private volatile PointsMatrix matrix = PointsMatrix.defaults();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "points-matrix");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PointsMatrixStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @org.springframework.context.event.EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::seedIfEmpty);
+        executor.scheduleWithFixedDelay(this::reload, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    PointsMatrix current() {
+        return matrix;
+    }
+
+    void reload() {
+        try {
+            List<PointsMatrixCell> cells = jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> PointsMatrixCell.builder()
+                    .tier(rs.getString("tier"))
+                    .maxAmount(rs.getBigDecimal("max_amount"))
+                    .points(rs.getInt("points"))
+                    .build());
+            if (cells.isEmpty()) {
+                return;
+            }
+            PointsMatrix loaded = PointsMatrix.of(cells);
+            if (!loaded.sameAs(matrix)) {
+                matrix = loaded;
+                log.info("Points matrix loaded: {} tiers x {} spend ranges", loaded.tierCount(),
+                        loaded.rangeCount());
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid points matrix, keeping the current one: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Points matrix reload failed: {}", e.getMessage());
+        }
+    }
+
+    // The table lock keeps instances starting together from seeding twice
+    private void seedIfEmpty() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("LOCK TABLE points_matrix IN EXCLUSIVE MODE");
+                Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM points_matrix", Integer.class);
+                if (rows != null && rows > 0) {
+                    return;
+                }
+                List<Object[]> cells = PointsMatrix.defaultCells().stream()
+                        .map(cell -> new Object[] {cell.getTier(), cell.getMaxAmount(), cell.getPoints()})
+                        .toList();
+                jdbcTemplate.batchUpdate(SEED_SQL, cells);
+                log.info("Seeded points_matrix with {} default cells", cells.size());
+            });
+        } catch (Exception e) {
+            log.warn("Could not seed points_matrix: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,26 @@
+package com.lms.reward.service;
+
+import com.lms.reward.model.RuleEvaluationRequest;
+import com.lms.reward.model.TransactionFact;
+
+import java.util.List;
+
+/**
+ * Applies the loyalty rules to a transaction. rules.evaluation-mode selects
+ * the implementation: HTTP calls rule-engine-service (RuleClient), EMBEDDED
+ * runs the rule engine inside this service (EmbeddedRuleEvaluator).
+ */
+public interface RuleEvaluator {
+
+    /**
+     * @return the transaction with multiplier, bonus points, reward type and discount set by the rules
+     */
+    TransactionFact evaluateRules(RuleEvaluationRequest request);
+
+    /**
+     * Evaluates many transactions against one rule snapshot.
+     *
+     * @return the evaluated transactions in request order; null where a request could not be evaluated
+     */
+    List<TransactionFact> evaluateBatch(List<RuleEvaluationRequest> requests);
+}
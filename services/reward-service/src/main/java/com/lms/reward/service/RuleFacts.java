@@ -0,0 +1,60 @@
+package com.lms.reward.service;
+
+import com.lms.reward.model.MemberActivityFact;
+import com.lms.reward.model.TransactionFact;
+
+/**
+ * Converts between reward-service's facts and the rule model's. Kept apart
+ * from EmbeddedRuleEvaluator, whose rule engine classes are absent unless
+ * reward-service is built for rules.evaluation-mode=EMBEDDED.
+ */
+final class RuleFacts {
+
+    private RuleFacts() {
+    }
+
+    static TransactionFact fromRuleFact(TransactionFact transaction, com.lms.rule.model.TransactionFact fact) {
+        return TransactionFact.builder()
+                .memberId(transaction.getMemberId())
+                .amount(transaction.getAmount())
+                .paymentMethod(transaction.getPaymentMethod())
+                .productCategory(transaction.getProductCategory())
+                .memberTier(transaction.getMemberTier())
+                .role(transaction.getRole())
+                .pointMultiplier(fact.getPointMultiplier())
+                .bonusPoints(fact.getBonusPoints())
+                .rewardType(fact.getRewardType())
+                .discountPercentage(fact.getDiscountPercentage())
+                .build();
+    }
+
+    static com.lms.rule.model.TransactionFact toRuleFact(TransactionFact transaction) {
+        com.lms.rule.model.TransactionFact fact = new com.lms.rule.model.TransactionFact();
+        fact.setMemberId(transaction.getMemberId());
+        fact.setAmount(transaction.getAmount());
+        fact.setPaymentMethod(transaction.getPaymentMethod());
+        fact.setProductCategory(transaction.getProductCategory());
+        fact.setMemberTier(transaction.getMemberTier());
+        fact.setRole(transaction.getRole());
+        fact.setPointMultiplier(transaction.getPointMultiplier());
+        fact.setBonusPoints(transaction.getBonusPoints());
+        fact.setRewardType(transaction.getRewardType());
+        fact.setDiscountPercentage(transaction.getDiscountPercentage());
+        return fact;
+    }
+
+    static com.lms.rule.model.MemberActivityFact toRuleActivity(MemberActivityFact activity) {
+        if (activity == null) {
+            return null;
+        }
+        com.lms.rule.model.MemberActivityFact fact = new com.lms.rule.model.MemberActivityFact();
+        fact.setMemberId(activity.getMemberId());
+        fact.setMonthlyTransactionCount(activity.getMonthlyTransactionCount());
+        fact.setMonthlyTotalSpent(activity.getMonthlyTotalSpent());
+        fact.setQuarterlyTransactionCount(activity.getQuarterlyTransactionCount());
+        fact.setQuarterlyTotalSpent(activity.getQuarterlyTotalSpent());
+        fact.setTransactionCount(activity.getTransactionCount());
+        fact.setTotalSpent(activity.getTotalSpent());
+        return fact;
+    }
+}
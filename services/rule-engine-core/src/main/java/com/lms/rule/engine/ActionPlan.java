@@ -0,0 +1,8 @@
+package com.lms.rule.engine;
+
+/**
+ * A rule action compiled once from {@code Rule.actions}. Evaluation works on
+ * these typed plans instead of walking the JSON on every message.
+ */
+public sealed interface ActionPlan permits AwardPoints, TieredPoints, AwardDiscount {
+}
@@ -0,0 +1,240 @@
+package com.lms.rule.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.lms.rule.model.Rule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiles {@code Rule.actions} JSON into immutable {@link ActionPlan}s.
+ * Used when a rule is saved (to reject bad input) and when a snapshot is built.
+ */
+@Slf4j
+public final class ActionPlanCompiler {
+    static final String DEFAULT_MEMBER_ID_FIELD = "memberId";
+    static final String DEFAULT_TRANSACTION_ID_FIELD = "transactionId";
+
+    private ActionPlanCompiler() {
+    }
+
+    /**
+     * Validates the actions of a rule according to its type, and its grouping.
+     *
+     * @throws InvalidRuleException if the actions cannot be compiled
+     */
+    public static void validate(Rule rule) {
+        RuleGroup.validate(rule);
+        if ("EVENT".equals(rule.getRuleType())) {
+            compileEvent(rule, true);
+        } else if ("SIMPLE".equals(rule.getRuleType()) || "TRANSACTION".equals(rule.getRuleType())) {
+            compileSimple(rule, true);
+        }
+    }
+
+    /**
+     * SIMPLE/TRANSACTION rules: an array of actions applied to the transaction
+     * fact. Non-TIERED actions are interpreted through the rule's rewardType;
+     * actions of an unknown type are skipped.
+     */
+    public static List<ActionPlan> compileSimple(Rule rule) {
+        return compileSimple(rule, false);
+    }
+
+    private static List<ActionPlan> compileSimple(Rule rule, boolean strict) {
+        JsonNode actions = rule.getActions();
+        if (actions == null || actions.isMissingNode() || actions.isEmpty()) {
+            return List.of();
+        }
+        if (!actions.isArray()) {
+            throw invalid(rule, "actions must be a JSON array");
+        }
+
+        List<ActionPlan> plans = new ArrayList<>(actions.size());
+        for (JsonNode action : actions) {
+            String type = action.path("type").asText();
+            if ("TIERED_POINTS".equals(type)) {
+                plans.add(tieredPoints(rule, action, DEFAULT_MEMBER_ID_FIELD, DEFAULT_TRANSACTION_ID_FIELD,
+                        strict));
+            } else if ("POINTS".equals(rule.getRewardType()) || "AWARD_POINTS".equals(type)) {
+                double multiplier = action.hasNonNull("pointsMultiplier")
+                        ? decimal(rule, action, "pointsMultiplier", 0.0)
+                        : decimal(rule, action, "multiplier", 0.0);
+                plans.add(new AwardPoints(integer(rule, action, "points", 0), multiplier,
+                        text(action, "reason"), DEFAULT_MEMBER_ID_FIELD, DEFAULT_TRANSACTION_ID_FIELD));
+            } else if ("DISCOUNT".equals(rule.getRewardType()) || "AWARD_DISCOUNT".equals(type)) {
+                plans.add(new AwardDiscount(decimal(rule, action, "discountPercentage", 10.0)));
+            } else {
+                unknownAction(rule, "unsupported action type '" + type + "' for rewardType "
+                        + rule.getRewardType(), strict);
+            }
+        }
+        return List.copyOf(plans);
+    }
+
+    /**
+     * EVENT rules: a single action object or an array of them. Objects without
+     * a type but with {@code points} are the legacy award format; actions of an
+     * unknown type are skipped.
+     */
+    public static List<ActionPlan> compileEvent(Rule rule) {
+        return compileEvent(rule, false);
+    }
+
+    private static List<ActionPlan> compileEvent(Rule rule, boolean strict) {
+        JsonNode actions = rule.getActions();
+        if (actions == null || actions.isMissingNode() || !actions.isContainerNode()) {
+            return List.of();
+        }
+
+        List<ActionPlan> plans = new ArrayList<>();
+        for (JsonNode action : actions.isArray() ? actions : List.of(actions)) {
+            String type = action.path("type").asText();
+            if ("AWARD_POINTS".equals(type)) {
+                plans.add(new AwardPoints(integer(rule, action, "points", 0), 0.0, text(action, "reason"),
+                        textOr(action, "memberIdField", DEFAULT_MEMBER_ID_FIELD),
+                        textOr(action, "transactionIdField", DEFAULT_TRANSACTION_ID_FIELD)));
+            } else if ("TIERED_POINTS".equals(type)) {
+                plans.add(tieredPoints(rule, action,
+                        textOr(action, "memberIdField", DEFAULT_MEMBER_ID_FIELD),
+                        textOr(action, "transactionIdField", DEFAULT_TRANSACTION_ID_FIELD), strict));
+            } else if (action.has("points")) {
+                plans.add(new AwardPoints(integer(rule, action, "points", 0), 0.0, text(action, "reason"),
+                        DEFAULT_MEMBER_ID_FIELD, DEFAULT_TRANSACTION_ID_FIELD));
+            } else {
+                unknownAction(rule, "unknown action type '" + type + "'", strict);
+            }
+        }
+        return List.copyOf(plans);
+    }
+
+    /**
+     * Ranges that only share a boundary are fine; the one listed first wins at
+     * that amount. Ranges that truly overlap are rejected when a rule is saved
+     * (strict). Stored rules with overlaps still compile, matching the first
+     * range in list order as they did before ranges were indexed.
+     */
+    private static TieredPoints tieredPoints(Rule rule, JsonNode action, String memberIdField,
+            String transactionIdField, boolean strict) {
+        JsonNode ranges = action.path("ranges");
+        if (!ranges.isArray() || ranges.isEmpty()) {
+            throw invalid(rule, "TIERED_POINTS requires a non-empty 'ranges' array");
+        }
+
+        record Range(int position, double min, double max, int points, double multiplier, String reason) {
+        }
+        List<Range> listed = new ArrayList<>(ranges.size());
+        for (JsonNode range : ranges) {
+            double min = decimal(rule, range, "min", 0.0);
+            JsonNode maxNode = range.get("max");
+            double max = (maxNode == null || maxNode.isNull() || maxNode.asText().isEmpty())
+                    ? Double.POSITIVE_INFINITY
+                    : decimal(rule, range, "max", 0.0);
+            if (max < min) {
+                throw invalid(rule, "range max " + max + " is below min " + min);
+            }
+            listed.add(new Range(listed.size(), min, max, integer(rule, range, "points", 0),
+                    decimal(rule, range, "multiplier", 0.0), text(range, "reason")));
+        }
+        List<Range> parsed = new ArrayList<>(listed);
+        parsed.sort(Comparator.comparingDouble(Range::min));
+
+        boolean overlapping = false;
+        for (int i = 1; i < parsed.size() && !overlapping; i++) {
+            Range previous = parsed.get(i - 1);
+            Range r = parsed.get(i);
+            if (r.min() < previous.max()) {
+                if (strict) {
+                    throw invalid(rule, "ranges [" + previous.min() + " - " + previous.max() + "] and ["
+                            + r.min() + " - " + r.max() + "] overlap");
+                }
+                log.warn("Rule '{}' has overlapping TIERED_POINTS ranges; the first listed range that matches applies",
+                        rule.getRuleName());
+                overlapping = true;
+            }
+        }
+        if (overlapping) {
+            parsed = listed;
+        }
+
+        int n = parsed.size();
+        double[] mins = new double[n];
+        double[] maxs = new double[n];
+        int[] points = new int[n];
+        double[] multipliers = new double[n];
+        String[] reasons = new String[n];
+        boolean[] ownsMin = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Range r = parsed.get(i);
+            mins[i] = r.min();
+            maxs[i] = r.max();
+            points[i] = r.points();
+            multipliers[i] = r.multiplier();
+            reasons[i] = r.reason();
+            // At a shared boundary the range listed first wins
+            ownsMin[i] = i == 0 || r.min() > maxs[i - 1] || r.position() < parsed.get(i - 1).position();
+        }
+        return new TieredPoints(mins, maxs, points, multipliers, reasons, ownsMin, overlapping, memberIdField,
+                transactionIdField);
+    }
+
+    // Rejected when the rule is saved; a stored rule keeps its other actions, as before plans were compiled
+    private static void unknownAction(Rule rule, String reason, boolean strict) {
+        if (strict) {
+            throw invalid(rule, reason);
+        }
+        log.warn("Rule '{}': {}; action skipped", rule.getRuleName(), reason);
+    }
+
+    private static int integer(Rule rule, JsonNode node, String field, int defaultValue) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return defaultValue;
+        }
+        if (value.isIntegralNumber() && value.canConvertToInt()) {
+            return value.intValue();
+        }
+        if (value.isTextual()) {
+            try {
+                return Integer.parseInt(value.asText().trim());
+            } catch (NumberFormatException ignored) {
+                // fall through to the error below
+            }
+        }
+        throw invalid(rule, "'" + field + "' must be a whole number but was " + value);
+    }
+
+    private static double decimal(Rule rule, JsonNode node, String field, double defaultValue) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return defaultValue;
+        }
+        if (value.isNumber()) {
+            return value.doubleValue();
+        }
+        if (value.isTextual()) {
+            try {
+                return Double.parseDouble(value.asText().trim());
+            } catch (NumberFormatException ignored) {
+                // fall through to the error below
+            }
+        }
+        throw invalid(rule, "'" + field + "' must be a number but was " + value);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String textOr(JsonNode node, String field, String defaultValue) {
+        String value = text(node, field);
+        return value != null ? value : defaultValue;
+    }
+
+    private static InvalidRuleException invalid(Rule rule, String reason) {
+        return new InvalidRuleException("Invalid actions for rule '" + rule.getRuleName() + "': " + reason);
+    }
+}
@@ -0,0 +1,224 @@
+package com.lms.rule.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static centered interval tree over rule amount ranges. A stabbing query
+ * returns the ordinals of every rule whose [minAmount, maxAmount] contains the
+ * amount in O(log n + k).
+ *
+ * Bounds are held as doubles. {@code BigDecimal#doubleValue} is monotonic, so
+ * the tree never drops a rule that matches exactly; callers still apply the
+ * exact BigDecimal comparison to the candidates.
+ */
+final class AmountIntervalTree {
+    private static final int LEAF_SIZE = 8;
+
+    private final Node root;
+
+    private AmountIntervalTree(Node root) {
+        this.root = root;
+    }
+
+    static AmountIntervalTree build(double[] lows, double[] highs, int[] ordinals) {
+        Integer[] order = new Integer[ordinals.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        return new AmountIntervalTree(node(lows, highs, ordinals, Arrays.asList(order)));
+    }
+
+    void stab(double amount, OrdinalBuffer out) {
+        Node node = root;
+        while (node != null) {
+            if (node.leaf) {
+                for (int i = 0; i < node.ordinals.length; i++) {
+                    if (node.lows[i] <= amount && amount <= node.highs[i]) {
+                        out.add(node.ordinals[i]);
+                    }
+                }
+                return;
+            }
+            if (amount < node.center) {
+                // lows are ascending: stop at the first interval starting after the amount
+                for (int i = 0; i < node.byLow.length && node.lows[node.byLow[i]] <= amount; i++) {
+                    out.add(node.ordinals[node.byLow[i]]);
+                }
+                node = node.left;
+            } else if (amount > node.center) {
+                for (int i = 0; i < node.byHigh.length && node.highs[node.byHigh[i]] >= amount; i++) {
+                    out.add(node.ordinals[node.byHigh[i]]);
+                }
+                node = node.right;
+            } else {
+                for (int ordinal : node.ordinals) {
+                    out.add(ordinal);
+                }
+                return;
+            }
+        }
+    }
+
+    // Every rule in the tree, for a transaction without an amount to filter on
+    void all(OrdinalBuffer out) {
+        collectAll(root, out);
+    }
+
+    private static void collectAll(Node node, OrdinalBuffer out) {
+        if (node == null) {
+            return;
+        }
+        for (int ordinal : node.ordinals) {
+            out.add(ordinal);
+        }
+        collectAll(node.left, out);
+        collectAll(node.right, out);
+    }
+
+    private static Node node(double[] lows, double[] highs, int[] ordinals, List<Integer> members) {
+        if (members.isEmpty()) {
+            return null;
+        }
+        if (members.size() <= LEAF_SIZE) {
+            return Node.leaf(pick(lows, members), pick(highs, members), pickInts(ordinals, members));
+        }
+
+        double center = median(lows, highs, members);
+        List<Integer> left = new ArrayList<>();
+        List<Integer> right = new ArrayList<>();
+        List<Integer> overlapping = new ArrayList<>();
+        for (int m : members) {
+            if (highs[m] < center) {
+                left.add(m);
+            } else if (lows[m] > center) {
+                right.add(m);
+            } else {
+                overlapping.add(m);
+            }
+        }
+        // Unbounded ranges all straddle any finite center; nothing left to split on
+        if (left.isEmpty() && right.isEmpty()) {
+            return Node.leaf(pick(lows, members), pick(highs, members), pickInts(ordinals, members));
+        }
+
+        double[] nodeLows = pick(lows, overlapping);
+        double[] nodeHighs = pick(highs, overlapping);
+        int[] byLow = sortedIndexes(nodeLows, false);
+        int[] byHigh = sortedIndexes(nodeHighs, true);
+        return new Node(center, nodeLows, nodeHighs, pickInts(ordinals, overlapping), byLow, byHigh,
+                node(lows, highs, ordinals, left), node(lows, highs, ordinals, right));
+    }
+
+    // Median of the finite endpoints keeps the tree balanced even with open-ended ranges
+    private static double median(double[] lows, double[] highs, List<Integer> members) {
+        double[] points = new double[members.size() * 2];
+        int n = 0;
+        for (int m : members) {
+            if (Double.isFinite(lows[m])) {
+                points[n++] = lows[m];
+            }
+            if (Double.isFinite(highs[m])) {
+                points[n++] = highs[m];
+            }
+        }
+        if (n == 0) {
+            return 0.0;
+        }
+        Arrays.sort(points, 0, n);
+        return points[n / 2];
+    }
+
+    private static int[] sortedIndexes(double[] values, boolean descending) {
+        Integer[] idx = new Integer[values.length];
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = i;
+        }
+        Comparator<Integer> cmp = Comparator.comparingDouble(i -> values[i]);
+        Arrays.sort(idx, descending ? cmp.reversed() : cmp);
+        return Arrays.stream(idx).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static double[] pick(double[] source, List<Integer> members) {
+        double[] out = new double[members.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = source[members.get(i)];
+        }
+        return out;
+    }
+
+    private static int[] pickInts(int[] source, List<Integer> members) {
+        int[] out = new int[members.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = source[members.get(i)];
+        }
+        return out;
+    }
+
+    private static final class Node {
+        final boolean leaf;
+        final double center;
+        final double[] lows;
+        final double[] highs;
+        final int[] ordinals;
+        final int[] byLow;
+        final int[] byHigh;
+        final Node left;
+        final Node right;
+
+        Node(double center, double[] lows, double[] highs, int[] ordinals, int[] byLow, int[] byHigh,
+                Node left, Node right) {
+            this.leaf = false;
+            this.center = center;
+            this.lows = lows;
+            this.highs = highs;
+            this.ordinals = ordinals;
+            this.byLow = byLow;
+            this.byHigh = byHigh;
+            this.left = left;
+            this.right = right;
+        }
+
+        private Node(double[] lows, double[] highs, int[] ordinals) {
+            this.leaf = true;
+            this.center = 0.0;
+            this.lows = lows;
+            this.highs = highs;
+            this.ordinals = ordinals;
+            this.byLow = null;
+            this.byHigh = null;
+            this.left = null;
+            this.right = null;
+        }
+
+        static Node leaf(double[] lows, double[] highs, int[] ordinals) {
+            return new Node(lows, highs, ordinals);
+        }
+    }
+
+    /**
+     * Growable int buffer reused by a query to collect rule ordinals.
+     */
+    static final class OrdinalBuffer {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] sorted() {
+            Arrays.sort(values, 0, size);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.lms.rule.engine;
+
+public record AwardDiscount(double discountPercentage) implements ActionPlan {
+}
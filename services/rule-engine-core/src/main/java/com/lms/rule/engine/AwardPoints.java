@@ -0,0 +1,18 @@
+package com.lms.rule.engine;
+
+/**
+ * Fixed points plus an optional amount-proportional part. The id fields name
+ * the event attributes holding the member and transaction ids (EVENT rules).
+ */
+public record AwardPoints(
+        int points,
+        double multiplier,
+        String reason,
+        String memberIdField,
+        String transactionIdField) implements ActionPlan {
+
+    // NaN (no amount) leaves just the fixed points
+    public int pointsFor(double amount) {
+        return multiplier > 0 && !Double.isNaN(amount) ? points + (int) (amount * multiplier) : points;
+    }
+}
@@ -0,0 +1,30 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.model.Rule;
+
+import java.util.List;
+
+/**
+ * Immutable copy of an EVENT rule, indexed in the snapshot by its
+ * {@code conditions.eventType}.
+ */
+public record CompiledEventRule(
+        Long id,
+        String ruleName,
+        String eventType,
+        int priority,
+        String exclusiveGroup,
+        String rewardType,
+        List<ActionPlan> actions) {
+
+    public static CompiledEventRule from(Rule rule, String eventType) {
+        return new CompiledEventRule(
+                rule.getId(),
+                rule.getRuleName(),
+                eventType,
+                rule.getPriority() != null ? rule.getPriority() : 0,
+                RuleGroup.exclusiveGroup(rule),
+                rule.getRewardType(),
+                ActionPlanCompiler.compileEvent(rule));
+    }
+}
@@ -0,0 +1,67 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.model.Rule;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable, detached copy of a field-based rule. Built once per snapshot so
+ * evaluation never touches the JPA entity or the database. Actions are
+ * compiled here, so {@link #from(Rule)} throws {@link InvalidRuleException}
+ * for malformed action JSON. exclusiveGroup is null unless the rule competes
+ * in an EXCLUSIVE {@link RuleGroup}.
+ */
+public record CompiledRule(
+        Long id,
+        String ruleName,
+        String ruleType,
+        int priority,
+        String exclusiveGroup,
+        String targetTier,
+        Set<String> productCodes,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        Integer minVolume,
+        Integer maxVolume,
+        String evaluationType,
+        String rewardType,
+        LocalDateTime validFrom,
+        LocalDateTime validUntil,
+        List<ActionPlan> actions) {
+
+    public static CompiledRule from(Rule rule) {
+        return new CompiledRule(
+                rule.getId(),
+                rule.getRuleName(),
+                rule.getRuleType(),
+                rule.getPriority() != null ? rule.getPriority() : 0,
+                RuleGroup.exclusiveGroup(rule),
+                rule.getTargetTier() != null && !rule.getTargetTier().isEmpty() ? rule.getTargetTier() : null,
+                productCodes(rule),
+                rule.getMinAmount(),
+                rule.getMaxAmount(),
+                rule.getMinVolume(),
+                rule.getMaxVolume(),
+                rule.getEvaluationType(),
+                rule.getRewardType(),
+                rule.getValidFrom(),
+                rule.getValidUntil(),
+                ActionPlanCompiler.compileSimple(rule));
+    }
+
+    // Multi-product list wins; the legacy single code is only used when the list is empty
+    private static Set<String> productCodes(Rule rule) {
+        if (rule.getTargetProductCodes() != null && !rule.getTargetProductCodes().isEmpty()) {
+            return Collections.unmodifiableSet(new HashSet<>(rule.getTargetProductCodes()));
+        }
+        if (rule.getTargetProductCode() != null && !rule.getTargetProductCode().isEmpty()) {
+            return Collections.singleton(rule.getTargetProductCode());
+        }
+        return Collections.emptySet();
+    }
+}
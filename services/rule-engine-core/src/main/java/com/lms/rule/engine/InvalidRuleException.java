@@ -0,0 +1,10 @@
+package com.lms.rule.engine;
+
+/**
+ * Thrown when a rule definition cannot be compiled, e.g. malformed actions.
+ */
+public class InvalidRuleException extends RuntimeException {
+    public InvalidRuleException(String message) {
+        super(message);
+    }
+}
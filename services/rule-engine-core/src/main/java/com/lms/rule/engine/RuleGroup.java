@@ -0,0 +1,48 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.model.Rule;
+
+import java.util.Locale;
+
+/**
+ * Conflict resolution between overlapping rules. Rules sharing an EXCLUSIVE
+ * group compete: only the highest-priority match that awards points (or a
+ * discount) applies, ties going to the lowest id. DRL rules map the group to
+ * an activation-group, where the first firing wins. Rules in a CUMULATIVE group, or in no group, all apply, in
+ * priority order.
+ */
+public final class RuleGroup {
+    public static final String EXCLUSIVE = "EXCLUSIVE";
+    public static final String CUMULATIVE = "CUMULATIVE";
+
+    private RuleGroup() {
+    }
+
+    /**
+     * @throws InvalidRuleException for an unknown groupMode, or EXCLUSIVE without a ruleGroup
+     */
+    public static void validate(Rule rule) {
+        String mode = mode(rule);
+        if (mode == null || CUMULATIVE.equals(mode)) {
+            return;
+        }
+        if (!EXCLUSIVE.equals(mode)) {
+            throw new InvalidRuleException("Rule " + rule.getId() + ": groupMode must be EXCLUSIVE or CUMULATIVE");
+        }
+        if (rule.getRuleGroup() == null || rule.getRuleGroup().isBlank()) {
+            throw new InvalidRuleException("Rule " + rule.getId() + ": EXCLUSIVE groupMode needs a ruleGroup");
+        }
+    }
+
+    // Group name when the rule competes in an exclusive group, otherwise null
+    public static String exclusiveGroup(Rule rule) {
+        if (!EXCLUSIVE.equals(mode(rule)) || rule.getRuleGroup() == null || rule.getRuleGroup().isBlank()) {
+            return null;
+        }
+        return rule.getRuleGroup().trim();
+    }
+
+    private static String mode(Rule rule) {
+        return rule.getGroupMode() != null ? rule.getGroupMode().trim().toUpperCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.lms.rule.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Discrimination index over the simple rules of a snapshot: hash buckets by
+ * target tier, then by product code, each holding an {@link AmountIntervalTree}.
+ * A lookup touches at most four buckets (exact/any tier x exact/any product)
+ * and returns only rules whose tier, product and amount filters can match, in
+ * snapshot order.
+ */
+public final class RuleIndex {
+    private static final String ANY = "\u0000*";
+    private static final String NO_PRODUCT = "\u0000null";
+
+    private final List<CompiledRule> rules;
+    private final Map<String, Map<String, AmountIntervalTree>> buckets;
+
+    private RuleIndex(List<CompiledRule> rules, Map<String, Map<String, AmountIntervalTree>> buckets) {
+        this.rules = rules;
+        this.buckets = buckets;
+    }
+
+    public static RuleIndex build(List<CompiledRule> rules) {
+        Map<String, Map<String, List<Integer>>> grouped = new HashMap<>();
+        for (int ordinal = 0; ordinal < rules.size(); ordinal++) {
+            CompiledRule rule = rules.get(ordinal);
+            Map<String, List<Integer>> byProduct = grouped.computeIfAbsent(tierKey(rule.targetTier()),
+                    k -> new HashMap<>());
+            if (rule.productCodes().isEmpty()) {
+                byProduct.computeIfAbsent(ANY, k -> new ArrayList<>()).add(ordinal);
+            } else {
+                for (String code : rule.productCodes()) {
+                    byProduct.computeIfAbsent(code != null ? code : NO_PRODUCT, k -> new ArrayList<>()).add(ordinal);
+                }
+            }
+        }
+
+        Map<String, Map<String, AmountIntervalTree>> buckets = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((tier, byProduct) -> {
+            Map<String, AmountIntervalTree> trees = new HashMap<>(byProduct.size() * 2);
+            byProduct.forEach((product, ordinals) -> trees.put(product, tree(rules, ordinals)));
+            buckets.put(tier, trees);
+        });
+        return new RuleIndex(rules, buckets);
+    }
+
+    /**
+     * Rules that may apply to a transaction with the given tier, product
+     * category and amount. Order matches the snapshot order of the rules. A
+     * null amount filters nothing out; the amount checks skip it as well.
+     */
+    public List<CompiledRule> candidates(String memberTier, String productCategory, BigDecimal amount) {
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        double value = amount != null ? amount.doubleValue() : Double.NaN;
+        AmountIntervalTree.OrdinalBuffer hits = new AmountIntervalTree.OrdinalBuffer();
+        collect(buckets.get(ANY), productCategory, value, hits);
+        if (memberTier != null) {
+            collect(buckets.get(memberTier.toUpperCase(Locale.ROOT)), productCategory, value, hits);
+        }
+        if (hits.size() == 0) {
+            return List.of();
+        }
+
+        int[] ordinals = hits.sorted();
+        List<CompiledRule> result = new ArrayList<>(hits.size());
+        for (int i = 0; i < hits.size(); i++) {
+            result.add(rules.get(ordinals[i]));
+        }
+        return result;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    private static void collect(Map<String, AmountIntervalTree> byProduct, String productCategory, double amount,
+            AmountIntervalTree.OrdinalBuffer hits) {
+        if (byProduct == null) {
+            return;
+        }
+        collect(byProduct.get(ANY), amount, hits);
+        collect(byProduct.get(productCategory != null ? productCategory : NO_PRODUCT), amount, hits);
+    }
+
+    private static void collect(AmountIntervalTree tree, double amount, AmountIntervalTree.OrdinalBuffer hits) {
+        if (tree == null) {
+            return;
+        }
+        if (Double.isNaN(amount)) {
+            tree.all(hits);
+        } else {
+            tree.stab(amount, hits);
+        }
+    }
+
+    private static AmountIntervalTree tree(List<CompiledRule> rules, List<Integer> ordinals) {
+        double[] lows = new double[ordinals.size()];
+        double[] highs = new double[ordinals.size()];
+        int[] ids = new int[ordinals.size()];
+        for (int i = 0; i < ids.length; i++) {
+            CompiledRule rule = rules.get(ordinals.get(i));
+            lows[i] = rule.minAmount() != null ? rule.minAmount().doubleValue() : Double.NEGATIVE_INFINITY;
+            highs[i] = rule.maxAmount() != null ? rule.maxAmount().doubleValue() : Double.POSITIVE_INFINITY;
+            ids[i] = ordinals.get(i);
+        }
+        return AmountIntervalTree.build(lows, highs, ids);
+    }
+
+    // Tier matching is case-insensitive, as in the original linear filter
+    private static String tierKey(String targetTier) {
+        return targetTier == null ? ANY : targetTier.toUpperCase(Locale.ROOT);
+    }
+}
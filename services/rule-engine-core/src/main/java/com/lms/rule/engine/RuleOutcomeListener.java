@@ -0,0 +1,22 @@
+package com.lms.rule.engine;
+
+/**
+ * Receives per-rule outcomes from {@link SimpleRuleEvaluator}: a rule matched
+ * when all of its filters passed, and its actions then awarded the given
+ * points (0 for discount-only or zero-point outcomes).
+ */
+public interface RuleOutcomeListener {
+    RuleOutcomeListener NONE = new RuleOutcomeListener() {
+        @Override
+        public void matched(CompiledRule rule) {
+        }
+
+        @Override
+        public void applied(CompiledRule rule, int points) {
+        }
+    };
+
+    void matched(CompiledRule rule);
+
+    void applied(CompiledRule rule, int points);
+}
@@ -0,0 +1,170 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.model.Rule;
+import com.lms.rule.model.TransactionFact;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable view of the rule set at a point in time. A new snapshot is built
+ * whenever rules change and swapped in atomically; readers always see one
+ * consistent version.
+ *
+ * Only rules whose validity window contains {@link #getActiveAt()} are
+ * included, so evaluation never compares dates. {@link #getNextTransition()}
+ * is when that set changes and the snapshot has to be rebuilt.
+ *
+ * Simple rules are held highest priority first (ties by id), which is the
+ * order {@link SimpleRuleEvaluator} resolves exclusive {@link RuleGroup}s in.
+ */
+@Slf4j
+public final class RuleSnapshot {
+    private final long version;
+    private final Instant builtAt;
+    private final LocalDateTime activeAt;
+    private final LocalDateTime nextTransition;
+    private final List<CompiledRule> simpleRules;
+    private final RuleIndex simpleRuleIndex;
+    private final int exclusiveGroupCount;
+    private final boolean cumulativeRules;
+    private final Map<String, List<CompiledEventRule>> eventRules;
+
+    private RuleSnapshot(long version, Instant builtAt, LocalDateTime activeAt, LocalDateTime nextTransition,
+            List<CompiledRule> simpleRules, Map<String, List<CompiledEventRule>> eventRules) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.activeAt = activeAt;
+        this.nextTransition = nextTransition;
+        this.simpleRules = simpleRules;
+        this.simpleRuleIndex = RuleIndex.build(simpleRules);
+        Set<String> groups = new HashSet<>();
+        boolean cumulative = false;
+        for (CompiledRule rule : simpleRules) {
+            if (rule.exclusiveGroup() != null) {
+                groups.add(rule.exclusiveGroup());
+            } else {
+                cumulative = true;
+            }
+        }
+        this.exclusiveGroupCount = groups.size();
+        this.cumulativeRules = cumulative;
+        this.eventRules = eventRules;
+    }
+
+    public static RuleSnapshot empty() {
+        return new RuleSnapshot(0L, Instant.EPOCH, null, null, List.of(), Map.of());
+    }
+
+    public static RuleSnapshot build(long version, List<Rule> rules) {
+        return build(version, rules, LocalDateTime.now());
+    }
+
+    /**
+     * Builds the snapshot of the rules active at the given instant.
+     */
+    public static RuleSnapshot build(long version, List<Rule> rules, LocalDateTime at) {
+        List<Rule> active = rules.stream().filter(r -> RuleTimeline.isActiveAt(r, at)).toList();
+        List<CompiledRule> simpleRules = active.stream()
+                .filter(r -> "SIMPLE".equals(r.getRuleType()) || "TRANSACTION".equals(r.getRuleType()))
+                .map(r -> compile(r, CompiledRule::from))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingInt(CompiledRule::priority).reversed()
+                        .thenComparing(CompiledRule::id, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        return new RuleSnapshot(version, Instant.now(), at, RuleTimeline.nextTransition(rules, at), simpleRules,
+                indexEventRules(active));
+    }
+
+    // eventType -> rules, highest priority first (ties keep id order)
+    private static Map<String, List<CompiledEventRule>> indexEventRules(List<Rule> rules) {
+        Map<String, List<CompiledEventRule>> byType = new HashMap<>();
+        for (Rule rule : rules) {
+            if (!"EVENT".equals(rule.getRuleType()) || rule.getConditions() == null) {
+                continue;
+            }
+            String eventType = rule.getConditions().path("eventType").asText();
+            if (eventType.isEmpty()) {
+                continue;
+            }
+            CompiledEventRule compiled = compile(rule, r -> CompiledEventRule.from(r, eventType));
+            if (compiled != null) {
+                byType.computeIfAbsent(eventType, k -> new ArrayList<>()).add(compiled);
+            }
+        }
+
+        Comparator<CompiledEventRule> order = Comparator.comparingInt(CompiledEventRule::priority).reversed()
+                .thenComparing(CompiledEventRule::id, Comparator.nullsLast(Comparator.naturalOrder()));
+        Map<String, List<CompiledEventRule>> index = new HashMap<>(byType.size() * 2);
+        byType.forEach((type, list) -> index.put(type, list.stream().sorted(order).toList()));
+        return Map.copyOf(index);
+    }
+
+    // Rules saved before validation existed may not compile; they are reported once here and left out
+    private static <T> T compile(Rule rule, Function<Rule, T> compiler) {
+        try {
+            return compiler.apply(rule);
+        } catch (InvalidRuleException e) {
+            log.warn("Excluding rule {} from snapshot: {}", rule.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public LocalDateTime getActiveAt() {
+        return activeAt;
+    }
+
+    public LocalDateTime getNextTransition() {
+        return nextTransition;
+    }
+
+    public List<CompiledRule> getSimpleRules() {
+        return simpleRules;
+    }
+
+    // Distinct EXCLUSIVE groups among the simple rules
+    public int getExclusiveGroupCount() {
+        return exclusiveGroupCount;
+    }
+
+    // Whether any simple rule applies regardless of the others
+    public boolean hasCumulativeRules() {
+        return cumulativeRules;
+    }
+
+    /**
+     * Simple rules whose tier, product and amount filters can match the fact.
+     */
+    public List<CompiledRule> candidatesFor(TransactionFact fact) {
+        return simpleRuleIndex.candidates(fact.getMemberTier(), fact.getProductCategory(), fact.getAmount());
+    }
+
+    public List<CompiledEventRule> eventRulesFor(String eventType) {
+        if (eventType == null) {
+            return List.of();
+        }
+        return eventRules.getOrDefault(eventType, List.of());
+    }
+
+    public Map<String, List<CompiledEventRule>> getEventRules() {
+        return eventRules;
+    }
+}
@@ -0,0 +1,55 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.model.Rule;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Validity windows of rules. A rule is active from validFrom (inclusive) to
+ * validUntil (inclusive); either bound may be open. The instants at which the
+ * set of active rules changes are known in advance, so snapshots are rebuilt
+ * at those transitions instead of checking dates on every evaluation.
+ */
+public final class RuleTimeline {
+
+    private RuleTimeline() {
+    }
+
+    public static boolean isActiveAt(Rule rule, LocalDateTime at) {
+        if (!Boolean.TRUE.equals(rule.getIsActive())) {
+            return false;
+        }
+        if (rule.getValidFrom() != null && at.isBefore(rule.getValidFrom())) {
+            return false;
+        }
+        return rule.getValidUntil() == null || !at.isAfter(rule.getValidUntil());
+    }
+
+    /**
+     * Instants at which a rule becomes active or stops being active. A rule
+     * stops being active just after its validUntil.
+     */
+    public static NavigableSet<LocalDateTime> transitions(Collection<Rule> rules) {
+        NavigableSet<LocalDateTime> transitions = new TreeSet<>();
+        for (Rule rule : rules) {
+            if (!Boolean.TRUE.equals(rule.getIsActive())) {
+                continue;
+            }
+            if (rule.getValidFrom() != null) {
+                transitions.add(rule.getValidFrom());
+            }
+            if (rule.getValidUntil() != null && rule.getValidUntil().isBefore(LocalDateTime.MAX)) {
+                transitions.add(rule.getValidUntil().plusNanos(1));
+            }
+        }
+        return transitions;
+    }
+
+    // First transition strictly after the given instant, or null if the active set never changes again
+    public static LocalDateTime nextTransition(Collection<Rule> rules, LocalDateTime after) {
+        return transitions(rules).higher(after);
+    }
+}
@@ -0,0 +1,161 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.TransactionFact;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the field-based (SIMPLE/TRANSACTION) rules of a snapshot to a
+ * transaction. The snapshot's {@link RuleIndex} narrows the rules down to the
+ * candidates for the fact's tier, product and amount before the full checks.
+ *
+ * Candidates come highest priority first. Once a rule of an EXCLUSIVE group
+ * applies, the rest of that group is skipped without being checked, and
+ * evaluation stops as soon as every exclusive group is resolved and no
+ * cumulative rule is left.
+ */
+@Slf4j
+public final class SimpleRuleEvaluator {
+
+    private SimpleRuleEvaluator() {
+    }
+
+    public static void evaluate(RuleSnapshot snapshot, TransactionFact fact, MemberActivityFact activity) {
+        evaluate(snapshot, fact, activity, RuleOutcomeListener.NONE);
+    }
+
+    public static void evaluate(RuleSnapshot snapshot, TransactionFact fact, MemberActivityFact activity,
+            RuleOutcomeListener listener) {
+        List<String> resolvedGroups = null;
+        for (CompiledRule rule : snapshot.candidatesFor(fact)) {
+            String group = rule.exclusiveGroup();
+            if (group == null) {
+                apply(rule, fact, activity, listener);
+                continue;
+            }
+            if (resolvedGroups != null && resolvedGroups.contains(group)) {
+                continue;
+            }
+            if (apply(rule, fact, activity, listener)) {
+                if (resolvedGroups == null) {
+                    resolvedGroups = new ArrayList<>(2);
+                }
+                resolvedGroups.add(group);
+                if (resolvedGroups.size() == snapshot.getExclusiveGroupCount() && !snapshot.hasCumulativeRules()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public static boolean apply(CompiledRule rule, TransactionFact fact, MemberActivityFact activity) {
+        return apply(rule, fact, activity, RuleOutcomeListener.NONE);
+    }
+
+    /**
+     * Checks the rule against the fact and applies its actions.
+     *
+     * @return whether the rule matched and awarded points or a discount; a
+     *         rule that awarded nothing leaves its EXCLUSIVE group open
+     */
+    public static boolean apply(CompiledRule rule, TransactionFact fact, MemberActivityFact activity,
+            RuleOutcomeListener listener) {
+        // Skip if target tier doesn't match
+        if (rule.targetTier() != null && !rule.targetTier().equalsIgnoreCase(fact.getMemberTier())) {
+            log.debug("Skipping rule {} as member tier {} does not match target tier {}",
+                    rule.ruleName(), fact.getMemberTier(), rule.targetTier());
+            return false;
+        }
+
+        // Product filter (multi-product list, or the legacy single code)
+        if (!rule.productCodes().isEmpty() && !rule.productCodes().contains(fact.getProductCategory())) {
+            return false;
+        }
+
+        // Amount range filter; a transaction without an amount is not filtered on it
+        if (fact.getAmount() != null) {
+            if (rule.minAmount() != null && fact.getAmount().compareTo(rule.minAmount()) < 0) {
+                return false;
+            }
+            if (rule.maxAmount() != null && fact.getAmount().compareTo(rule.maxAmount()) > 0) {
+                return false;
+            }
+        }
+
+        // Volume/Amount aggregates
+        if (activity != null && rule.evaluationType() != null) {
+            long currentVolume = 0;
+            java.math.BigDecimal currentTotalSpent = java.math.BigDecimal.ZERO;
+
+            if ("MONTHLY".equals(rule.evaluationType())) {
+                currentVolume = activity.getMonthlyTransactionCount();
+                currentTotalSpent = activity.getMonthlyTotalSpent();
+            } else if ("QUARTERLY".equals(rule.evaluationType())) {
+                currentVolume = activity.getQuarterlyTransactionCount();
+                currentTotalSpent = activity.getQuarterlyTotalSpent();
+            } else {
+                // For TRANSACTION evaluation type, we might still want to check
+                // lifetime/default aggregates
+                currentVolume = activity.getTransactionCount();
+                currentTotalSpent = activity.getTotalSpent();
+            }
+
+            if (rule.minVolume() != null && currentVolume < rule.minVolume()) {
+                return false;
+            }
+            if (rule.maxVolume() != null && currentVolume > rule.maxVolume()) {
+                return false;
+            }
+            if (rule.minAmount() != null && currentTotalSpent != null
+                    && currentTotalSpent.compareTo(rule.minAmount()) < 0) {
+                // Note: minAmount can be used for both per-transaction and aggregate
+                // If evaluationType is TRANSACTION, it checks per-transaction amount (already
+                // done above)
+                // If evaluationType is MONTHLY, it checks aggregate amount.
+                // Re-check logic: if it's periodic, currentTotalSpent is the aggregate.
+                if (!"TRANSACTION".equals(rule.evaluationType())) {
+                    return false;
+                }
+            }
+        }
+
+        // Apply reward using the action plans compiled with the snapshot
+        log.info("Applying simple rule: {}", rule.ruleName());
+        listener.matched(rule);
+        // Without an amount no tiered range matches and only fixed points are awarded
+        double amount = fact.getAmount() != null ? fact.getAmount().doubleValue() : Double.NaN;
+        int awarded = 0;
+        boolean discounted = false;
+        for (ActionPlan plan : rule.actions()) {
+            if (plan instanceof TieredPoints tiered) {
+                int range = tiered.rangeFor(amount);
+                if (range >= 0) {
+                    int calculatedPoints = tiered.pointsFor(range, amount);
+                    if (calculatedPoints > 0) {
+                        fact.setBonusPoints(fact.getBonusPoints() + calculatedPoints);
+                        awarded += calculatedPoints;
+                        if (log.isDebugEnabled()) {
+                            log.debug("Applied tiered points range for rule {}: [{} - {}] -> {} points",
+                                    rule.ruleName(), tiered.min(range), tiered.max(range), calculatedPoints);
+                        }
+                    }
+                }
+            } else if (plan instanceof AwardPoints award) {
+                int points = award.pointsFor(amount);
+                if (points > 0) {
+                    fact.setBonusPoints(fact.getBonusPoints() + points);
+                    awarded += points;
+                }
+            } else if (plan instanceof AwardDiscount discount) {
+                fact.setRewardType("DISCOUNT");
+                fact.setDiscountPercentage(discount.discountPercentage());
+                discounted = true;
+            }
+        }
+        listener.applied(rule, awarded);
+        return awarded > 0 || discounted;
+    }
+}
@@ -0,0 +1,100 @@
+package com.lms.rule.engine;
+
+/**
+ * Spend ranges sorted by lower bound and not overlapping, so the matching
+ * range is found with a binary search and no allocation. Neighbouring ranges
+ * may share a boundary, which belongs to the one listed first in the rule.
+ * Ranges of stored rules that do overlap are kept in list order instead and
+ * scanned for the first match.
+ */
+public final class TieredPoints implements ActionPlan {
+    private final double[] mins;
+    private final double[] maxs; // +Infinity when the range is open-ended
+    private final int[] points;
+    private final double[] multipliers;
+    private final String[] reasons;
+    private final boolean[] ownsMin; // false when the previous range's max is this min and wins there
+    private final boolean listOrder;
+    private final String memberIdField;
+    private final String transactionIdField;
+
+    TieredPoints(double[] mins, double[] maxs, int[] points, double[] multipliers, String[] reasons,
+            boolean[] ownsMin, boolean listOrder, String memberIdField, String transactionIdField) {
+        this.mins = mins;
+        this.maxs = maxs;
+        this.points = points;
+        this.multipliers = multipliers;
+        this.reasons = reasons;
+        this.ownsMin = ownsMin;
+        this.listOrder = listOrder;
+        this.memberIdField = memberIdField;
+        this.transactionIdField = transactionIdField;
+    }
+
+    /**
+     * @return index of the range containing {@code amount}, or -1 (also for NaN)
+     */
+    public int rangeFor(double amount) {
+        if (listOrder) {
+            for (int i = 0; i < mins.length; i++) {
+                if (mins[i] <= amount && amount <= maxs[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int lo = 0;
+        int hi = mins.length - 1;
+        int candidate = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (mins[mid] <= amount) {
+                candidate = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (candidate < 0 || amount > maxs[candidate]) {
+            return -1;
+        }
+        return candidate > 0 && !ownsMin[candidate] && amount <= maxs[candidate - 1] ? candidate - 1 : candidate;
+    }
+
+    public int pointsFor(int range, double amount) {
+        double multiplier = multipliers[range];
+        return multiplier > 0 ? points[range] + (int) (amount * multiplier) : points[range];
+    }
+
+    public int size() {
+        return mins.length;
+    }
+
+    public double min(int range) {
+        return mins[range];
+    }
+
+    public double max(int range) {
+        return maxs[range];
+    }
+
+    public int basePoints(int range) {
+        return points[range];
+    }
+
+    public double multiplier(int range) {
+        return multipliers[range];
+    }
+
+    public String reason(int range) {
+        return reasons[range];
+    }
+
+    public String memberIdField() {
+        return memberIdField;
+    }
+
+    public String transactionIdField() {
+        return transactionIdField;
+    }
+}
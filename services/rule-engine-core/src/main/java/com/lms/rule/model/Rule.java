@@ -39,6 +39,10 @@ public class Rule {
 
     private Integer priority;
 
+    // Rules in an EXCLUSIVE group compete: only the highest-priority match applies
+    private String ruleGroup;
+    private String groupMode; // EXCLUSIVE, CUMULATIVE (default)
+
     @Builder.Default
     private Boolean isActive = true;
 
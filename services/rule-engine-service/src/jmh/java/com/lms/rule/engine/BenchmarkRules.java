@@ -0,0 +1,139 @@
+package com.lms.rule.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.Rule;
+import com.lms.rule.model.TransactionFact;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic, reproducible rule sets and facts shaped like merchandising
+ * promotions: nearly every rule targets one tier and one product code with an
+ * amount window, plus a handful of global rules.
+ */
+final class BenchmarkRules {
+    static final String[] TIERS = {"BRONZE", "SILVER", "GOLD", "PLATINUM", "DIAMOND"};
+    static final int PRODUCT_CODES = 2_000;
+    static final int GLOBAL_RULES = 5;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkRules() {
+    }
+
+    static List<Rule> simpleRules(int count, long seed) {
+        Random random = new Random(seed);
+        List<Rule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean global = i < Math.min(GLOBAL_RULES, count);
+            double min = random.nextInt(5_000);
+            Rule rule = Rule.builder()
+                    .id((long) i + 1)
+                    .ruleType("SIMPLE")
+                    .ruleName("Promotion " + i)
+                    .priority(random.nextInt(10))
+                    .isActive(true)
+                    .evaluationType("TRANSACTION")
+                    .rewardType("POINTS")
+                    .targetTier(global ? null : TIERS[random.nextInt(TIERS.length)])
+                    .targetProductCode(global ? null : productCode(random.nextInt(PRODUCT_CODES)))
+                    .minAmount(global ? null : BigDecimal.valueOf(min))
+                    .maxAmount(global ? null : BigDecimal.valueOf(min + 50 + random.nextInt(2_000)))
+                    .actions(awardPoints(10 + random.nextInt(90), random.nextBoolean() ? 0.0 : 0.05))
+                    .build();
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    static TransactionFact[] facts(int count, long seed) {
+        Random random = new Random(seed);
+        TransactionFact[] facts = new TransactionFact[count];
+        for (int i = 0; i < count; i++) {
+            TransactionFact fact = new TransactionFact();
+            fact.setMemberId((long) i);
+            fact.setAmount(BigDecimal.valueOf(random.nextInt(7_000)));
+            fact.setPaymentMethod(random.nextBoolean() ? "QR" : "CARD");
+            fact.setProductCategory(productCode(random.nextInt(PRODUCT_CODES)));
+            fact.setMemberTier(TIERS[random.nextInt(TIERS.length)]);
+            fact.setRole("CUSTOMER");
+            facts[i] = fact;
+        }
+        return facts;
+    }
+
+    static MemberActivityFact activity() {
+        MemberActivityFact activity = new MemberActivityFact();
+        activity.setMemberId(1L);
+        activity.setMonthlyTransactionCount(12);
+        activity.setMonthlyTotalSpent(BigDecimal.valueOf(2_400));
+        activity.setQuarterlyTransactionCount(30);
+        activity.setQuarterlyTotalSpent(BigDecimal.valueOf(7_100));
+        activity.setTransactionCount(12);
+        activity.setTotalSpent(BigDecimal.valueOf(2_400));
+        return activity;
+    }
+
+    static void reset(TransactionFact fact) {
+        fact.setPointMultiplier(1.0);
+        fact.setBonusPoints(0);
+        fact.setRewardType("POINTS");
+        fact.setDiscountPercentage(0.0);
+    }
+
+    static String productCode(int n) {
+        return "SKU-" + n;
+    }
+
+    /**
+     * Contiguous TIERED_POINTS ranges of width 100 starting at 0, the last
+     * one open-ended, in the shape the admin API stores them.
+     */
+    static ArrayNode tieredActions(int ranges) {
+        ArrayNode actions = MAPPER.createArrayNode();
+        ObjectNode action = actions.addObject();
+        action.put("type", "TIERED_POINTS");
+        action.put("memberIdField", "memberId");
+        ArrayNode list = action.putArray("ranges");
+        for (int i = 0; i < ranges; i++) {
+            ObjectNode range = list.addObject();
+            range.put("min", i * 100);
+            if (i < ranges - 1) {
+                range.put("max", i * 100 + 99.99);
+            }
+            range.put("points", 5 * (i + 1));
+            range.put("multiplier", 0.01 * i);
+            range.put("reason", "Tier " + i);
+        }
+        return actions;
+    }
+
+    static Rule eventRule(long id, String eventType, ArrayNode actions) {
+        ObjectNode conditions = MAPPER.createObjectNode();
+        conditions.put("eventType", eventType);
+        return Rule.builder()
+                .id(id)
+                .ruleType("EVENT")
+                .ruleName("Event rule " + id)
+                .priority((int) (id % 10))
+                .isActive(true)
+                .conditions(conditions)
+                .actions(actions)
+                .build();
+    }
+
+    static ArrayNode awardPoints(int points, double multiplier) {
+        ArrayNode actions = MAPPER.createArrayNode();
+        ObjectNode action = actions.addObject();
+        action.put("type", "AWARD_POINTS");
+        action.put("points", points);
+        action.put("pointsMultiplier", multiplier);
+        return actions;
+    }
+}
@@ -0,0 +1,88 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.config.DroolsConfig;
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.TransactionFact;
+import com.lms.rule.service.KieSessionRunner;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.KieContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drools fireAllRules on the shipped loyalty-rules.drl per session mode:
+ * throughput and latency distribution. Run with -t to compare modes under
+ * concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DroolsSessionModeBenchmark {
+
+    @Param({"STATEFUL", "STATELESS", "POOLED"})
+    public KieSessionRunner.Mode mode;
+
+    private KieSessionRunner runner;
+    private final LongAdder fired = new LongAdder();
+
+    @State(Scope.Thread)
+    public static class Facts {
+        TransactionFact[] facts;
+        MemberActivityFact activity;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            facts = BenchmarkRules.facts(1024, 7L);
+            activity = BenchmarkRules.activity();
+        }
+
+        TransactionFact next() {
+            TransactionFact fact = facts[next++ & (facts.length - 1)];
+            BenchmarkRules.reset(fact);
+            return fact;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KieContainer container = new DroolsConfig().kieContainer();
+        // Stands in for the audit listener without measuring the database
+        runner = new KieSessionRunner(container, mode, 16, new DefaultAgendaEventListener() {
+            @Override
+            public void afterMatchFired(AfterMatchFiredEvent event) {
+                fired.increment();
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        runner.close();
+    }
+
+    @Benchmark
+    public double fire(Facts state) {
+        TransactionFact fact = state.next();
+        runner.fire(fact, state.activity);
+        return fact.getPointMultiplier();
+    }
+}
@@ -0,0 +1,105 @@
+package com.lms.rule.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.lms.rule.model.Rule;
+import com.lms.rule.repository.RuleRepository;
+import com.lms.rule.service.EventListener;
+import com.lms.rule.service.PointsAwardPublisher;
+import com.lms.rule.service.RuleMetrics;
+import com.lms.rule.service.RuleSnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EVENT rule actions: parsing the stored JSON into action plans (done once
+ * per snapshot) and dispatching an event through {@link EventListener} with
+ * the plans already compiled. Points awards go to a no-op PointsAwardPublisher.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventListenerBenchmark {
+    private static final String EVENT_TYPE = "PURCHASE";
+
+    @Param({"1", "10"})
+    public int rulesPerEvent;
+
+    private Rule tieredRule;
+    private EventListener listener;
+    private Map<String, Object>[] events;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        tieredRule = BenchmarkRules.eventRule(1L, EVENT_TYPE, BenchmarkRules.tieredActions(10));
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < rulesPerEvent; i++) {
+            ArrayNode actions = i % 2 == 0 ? BenchmarkRules.tieredActions(10) : BenchmarkRules.awardPoints(25, 0.0);
+            rules.add(BenchmarkRules.eventRule(i + 1L, EVENT_TYPE, actions));
+        }
+        // Other event types share the snapshot but must not be touched
+        for (int i = 0; i < 50; i++) {
+            rules.add(BenchmarkRules.eventRule(1_000L + i, "OTHER_" + i, BenchmarkRules.awardPoints(5, 0.0)));
+        }
+
+        RuleRepository repository = (RuleRepository) Proxy.newProxyInstance(RuleRepository.class.getClassLoader(),
+                new Class<?>[] {RuleRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return rules;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RuleSnapshotService snapshots = new RuleSnapshotService(repository, registry);
+        snapshots.refresh();
+        listener = new EventListener(snapshots, new PointsAwardPublisher(null) {
+            @Override
+            public void publish(Map<String, Object> award) {
+            }
+
+            @Override
+            public void publishAll(List<Map<String, Object>> awards) {
+            }
+        }, new RuleMetrics(registry), new ObjectMapper(), null);
+
+        events = new Map[256];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = Map.of("eventType", EVENT_TYPE, "memberId", (long) i, "transactionId", (long) i,
+                    "amount", (double) (i * 7 % 1_200));
+        }
+    }
+
+    @Benchmark
+    public List<ActionPlan> compileActions() {
+        return ActionPlanCompiler.compileEvent(tieredRule);
+    }
+
+    @Benchmark
+    public Map<String, Object> dispatch() {
+        Map<String, Object> event = events[next++ & (events.length - 1)];
+        listener.handleEvent(event);
+        return event;
+    }
+}
@@ -0,0 +1,82 @@
+package com.lms.rule.engine;
+
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.Rule;
+import com.lms.rule.model.TransactionFact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simple-rule phase latency as the rule count grows: indexed candidate lookup
+ * against the previous linear scan over every active rule. With grouping
+ * EXCLUSIVE all rules compete in one group, so only the best match applies
+ * and the indexed path stops at the first one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleRuleEvaluatorBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int ruleCount;
+
+    @Param({"NONE", "EXCLUSIVE"})
+    public String grouping;
+
+    private RuleSnapshot snapshot;
+    private TransactionFact[] facts;
+    private MemberActivityFact activity;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Rule> rules = BenchmarkRules.simpleRules(ruleCount, 42L);
+        if (RuleGroup.EXCLUSIVE.equals(grouping)) {
+            rules.forEach(rule -> {
+                rule.setRuleGroup("promotions");
+                rule.setGroupMode(RuleGroup.EXCLUSIVE);
+            });
+        }
+        snapshot = RuleSnapshot.build(1L, rules);
+        facts = BenchmarkRules.facts(1024, 7L);
+        activity = BenchmarkRules.activity();
+    }
+
+    @Benchmark
+    public int indexed() {
+        TransactionFact fact = nextFact();
+        SimpleRuleEvaluator.evaluate(snapshot, fact, activity);
+        return fact.getBonusPoints();
+    }
+
+    @Benchmark
+    public int linearScan() {
+        TransactionFact fact = nextFact();
+        for (CompiledRule rule : snapshot.getSimpleRules()) {
+            SimpleRuleEvaluator.apply(rule, fact, activity);
+        }
+        return fact.getBonusPoints();
+    }
+
+    private TransactionFact nextFact() {
+        TransactionFact fact = facts[next++ & (facts.length - 1)];
+        BenchmarkRules.reset(fact);
+        return fact;
+    }
+}
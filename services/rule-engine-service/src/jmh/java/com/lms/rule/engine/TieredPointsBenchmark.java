@@ -0,0 +1,56 @@
+package com.lms.rule.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TIERED_POINTS range resolution on a compiled plan: binary search for the
+ * range containing the amount, then the points for that range.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TieredPointsBenchmark {
+
+    @Param({"3", "10", "50"})
+    public int rangeCount;
+
+    private TieredPoints plan;
+    private double[] amounts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plan = (TieredPoints) ActionPlanCompiler.compileEvent(
+                BenchmarkRules.eventRule(1L, "PURCHASE", BenchmarkRules.tieredActions(rangeCount))).get(0);
+        Random random = new Random(11L);
+        amounts = new double[1024];
+        for (int i = 0; i < amounts.length; i++) {
+            // Includes amounts past the last bound and in the gaps between ranges
+            amounts[i] = random.nextDouble() * rangeCount * 110;
+        }
+    }
+
+    @Benchmark
+    public int resolve() {
+        double amount = amounts[next++ & (amounts.length - 1)];
+        int range = plan.rangeFor(amount);
+        return range < 0 ? 0 : plan.pointsFor(range, amount);
+    }
+}
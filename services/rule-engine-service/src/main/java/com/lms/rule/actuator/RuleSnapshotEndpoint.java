@@ -0,0 +1,34 @@
+package com.lms.rule.actuator;
+
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.service.RuleLoaderService;
+import com.lms.rule.service.RuleSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "rulesnapshot")
+@RequiredArgsConstructor
+public class RuleSnapshotEndpoint {
+    private final RuleSnapshotService ruleSnapshotService;
+    private final RuleLoaderService ruleLoaderService;
+
+    @ReadOperation
+    public Map<String, Object> snapshot() {
+        RuleSnapshot snapshot = ruleSnapshotService.current();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", snapshot.getVersion());
+        body.put("builtAt", snapshot.getBuiltAt());
+        body.put("activeAt", snapshot.getActiveAt());
+        body.put("nextTransition", snapshot.getNextTransition());
+        body.put("simpleRules", snapshot.getSimpleRules().size());
+        body.put("eventTypes", snapshot.getEventRules().keySet());
+        body.put("droolsContainerReady", ruleLoaderService.isReady());
+        return body;
+    }
+}
@@ -0,0 +1,63 @@
+package com.lms.rule.actuator;
+
+import com.lms.rule.service.RuleLoaderService;
+import com.lms.rule.service.RulePublisher;
+import com.lms.rule.service.RuleSnapshotService;
+import com.lms.rule.service.RuleVersionStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Readiness of the served rules: out of service until the rules are loaded,
+ * and while this instance has served an older rule set version than the
+ * cluster for longer than rules.cluster.max-staleness-ms.
+ */
+@Component("ruleSnapshot")
+@RequiredArgsConstructor
+public class RuleSnapshotHealthIndicator implements HealthIndicator {
+    private final RulePublisher rulePublisher;
+    private final RuleSnapshotService ruleSnapshotService;
+    private final RuleLoaderService ruleLoaderService;
+    private final RuleVersionStore ruleVersionStore;
+
+    @Value("${rules.cluster.max-staleness-ms:60000}")
+    private long maxStalenessMs;
+
+    @Override
+    public Health health() {
+        long served = rulePublisher.servedVersion();
+        Health.Builder builder = Health.up();
+        builder.withDetail("instanceId", rulePublisher.instanceId())
+                .withDetail("servedVersion", served)
+                .withDetail("snapshotVersion", ruleSnapshotService.current().getVersion())
+                .withDetail("containerReady", ruleLoaderService.isReady());
+
+        long latest;
+        try {
+            latest = ruleVersionStore.current();
+            builder.withDetail("latestVersion", latest);
+        } catch (Exception e) {
+            // Without the database the served rules stay usable; the version check resumes later
+            builder.withDetail("latestVersion", "unavailable: " + e.getMessage());
+            latest = served;
+        }
+
+        if (served < 0 || !ruleLoaderService.isReady()) {
+            return builder.outOfService().withDetail("reason", "rules not loaded").build();
+        }
+        Instant behindSince = rulePublisher.behindSince();
+        if (served < latest && behindSince != null
+                && Duration.between(behindSince, Instant.now()).toMillis() > maxStalenessMs) {
+            return builder.outOfService()
+                    .withDetail("reason", "serving v" + served + " since " + behindSince + ", cluster at v" + latest)
+                    .build();
+        }
+        return builder.build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.lms.rule.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
@@ -9,13 +10,27 @@ import org.kie.internal.io.ResourceFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @Configuration
+@Slf4j
 public class DroolsConfig {
-    private static final String RULES_PATH = "rules/loyalty-rules.drl";
+    private static final String RULES_PATH = RuleModelCompiler.CLASSPATH_RULES;
 
     @Bean
     public KieContainer kieContainer() {
         KieServices kieServices = KieServices.Factory.get();
+
+        // Executable model precompiled by the Gradle build (compileRuleModel)
+        try (InputStream model = getClass().getClassLoader().getResourceAsStream(RuleModelCompiler.CLASSPATH_MODEL)) {
+            if (model != null) {
+                return RuleModelCompiler.load(kieServices, model.readAllBytes());
+            }
+        } catch (IOException e) {
+            log.warn("Could not read {}, compiling {} instead", RuleModelCompiler.CLASSPATH_MODEL, RULES_PATH, e);
+        }
+
         KieFileSystem kieFileSystem = kieServices.newKieFileSystem();
         kieFileSystem.write(ResourceFactory.newClassPathResource(RULES_PATH));
         KieBuilder kieBuilder = kieServices.newKieBuilder(kieFileSystem);
@@ -1,10 +1,18 @@
 package com.lms.rule.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,6 +23,10 @@ public class RabbitConfig {
     public static final String POINTS_QUEUE = "points.earned.queue";
     public static final String EXCHANGE = "lms.exchange";
     public static final String ROUTING_KEY_EVENT = "event.#";
+    // Rule changes are fanned out to every rule-engine instance through its own auto-delete queue
+    public static final String RULE_CHANGE_EXCHANGE = "lms.rules.fanout";
+    // Batch-mode events that are invalid or failed again after redelivery, kept for inspection and replay
+    public static final String EVENT_PARKING_QUEUE = "event.occurrence.parking";
 
     @Bean
     public Queue eventQueue() {
@@ -26,6 +38,11 @@ public class RabbitConfig {
         return new Queue(POINTS_QUEUE, true);
     }
 
+    @Bean
+    public Queue eventParkingQueue() {
+        return new Queue(EVENT_PARKING_QUEUE, true);
+    }
+
     @Bean
     public TopicExchange exchange() {
         return new TopicExchange(EXCHANGE);
@@ -36,6 +53,43 @@ public class RabbitConfig {
         return BindingBuilder.bind(eventQueue).to(exchange).with(ROUTING_KEY_EVENT);
     }
 
+    @Bean
+    public FanoutExchange ruleChangeExchange() {
+        return new FanoutExchange(RULE_CHANGE_EXCHANGE);
+    }
+
+    @Bean
+    public Queue ruleChangeQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("rule.changes."));
+    }
+
+    @Bean
+    public Binding ruleChangeBinding(Queue ruleChangeQueue, FanoutExchange ruleChangeExchange) {
+        return BindingBuilder.bind(ruleChangeQueue).to(ruleChangeExchange);
+    }
+
+    // Consumer-side batching for EventListener.handleEvents (rules.events.batch.enabled); the listener acks each batch itself
+    @Bean
+    public SimpleRabbitListenerContainerFactory eventBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            @Value("${rules.events.batch.size:200}") int batchSize,
+            @Value("${rules.events.batch.prefetch:1000}") int prefetch,
+            @Value("${rules.events.batch.receive-timeout-ms:200}") long receiveTimeoutMs,
+            @Value("${rules.events.batch.concurrency:1}") int concurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        // A batch can only fill up if the broker lets that many messages be unacknowledged
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        // A partial batch is delivered once no message arrives for this long
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
     @Bean
     public Jackson2JsonMessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -0,0 +1,88 @@
+package com.lms.rule.config;
+
+import com.lms.rule.exception.RuleCompilationException;
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Compiles DRL into Drools executable-model kjars and loads them back.
+ * An executable-model kjar holds the rules as compiled Java classes, so
+ * loading it skips DRL parsing and MVEL compilation entirely.
+ *
+ * The {@link #main} entry point is run by the compileRuleModel Gradle task
+ * to precompile the shipped rules/loyalty-rules.drl at build time.
+ */
+public final class RuleModelCompiler {
+    public static final String CLASSPATH_RULES = "rules/loyalty-rules.drl";
+    public static final String CLASSPATH_MODEL = "rules/loyalty-rules.kjar";
+
+    // KieModule.getBytes() only includes a kmodule.xml if the file system has one
+    private static final String KMODULE_XML = "<kmodule xmlns=\"http://www.drools.org/xsd/kmodule\"/>";
+
+    private RuleModelCompiler() {
+    }
+
+    public static ReleaseId classpathReleaseId(KieServices kieServices) {
+        return kieServices.newReleaseId("com.lms.rule", "loyalty-rules", "1.0.0");
+    }
+
+    /**
+     * Builds the given DRL files (path to content) into an executable-model
+     * kjar and returns its bytes.
+     */
+    public static byte[] compile(KieServices kieServices, ReleaseId releaseId, Map<String, String> drlFiles) {
+        KieFileSystem fileSystem = kieServices.newKieFileSystem();
+        fileSystem.generateAndWritePomXML(releaseId);
+        fileSystem.writeKModuleXML(KMODULE_XML);
+        for (Map.Entry<String, String> file : drlFiles.entrySet()) {
+            fileSystem.write(file.getKey(), file.getValue());
+        }
+
+        KieBuilder builder = kieServices.newKieBuilder(fileSystem);
+        builder.buildAll(ExecutableModelProject.class);
+        if (builder.getResults().hasMessages(Message.Level.ERROR)) {
+            throw new RuleCompilationException("Build Errors occurred during executable model compilation",
+                    builder.getResults().getMessages(Message.Level.ERROR));
+        }
+        return ((InternalKieModule) builder.getKieModule()).getBytes();
+    }
+
+    public static KieContainer load(KieServices kieServices, byte[] kjar) {
+        KieModule module = kieServices.getRepository().addKieModule(kieServices.getResources().newByteArrayResource(kjar));
+        return kieServices.newKieContainer(module.getReleaseId());
+    }
+
+    /**
+     * Precompiles the shipped DRL. Usage: RuleModelCompiler &lt;output kjar file&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args[0]);
+        String drl;
+        try (InputStream in = RuleModelCompiler.class.getClassLoader().getResourceAsStream(CLASSPATH_RULES)) {
+            if (in == null) {
+                throw new IllegalStateException(CLASSPATH_RULES + " not found on the classpath");
+            }
+            drl = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        KieServices kieServices = KieServices.Factory.get();
+        byte[] kjar = compile(kieServices, classpathReleaseId(kieServices),
+                Map.of("src/main/resources/" + CLASSPATH_RULES, drl));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.write(output, kjar);
+    }
+}
@@ -3,7 +3,6 @@ package com.lms.rule.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lms.rule.model.Rule;
 import com.lms.rule.repository.RuleRepository;
-import com.lms.rule.service.RuleLoaderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -13,7 +12,6 @@ import org.springframework.stereotype.Component;
 public class RuleSeeder implements CommandLineRunner {
 
         private final RuleRepository ruleRepository;
-        private final RuleLoaderService ruleLoaderService;
         private final ObjectMapper objectMapper;
 
         @Override
@@ -65,10 +63,8 @@ public class RuleSeeder implements CommandLineRunner {
                                         .build();
                         ruleRepository.save(tieredTxRule);
 
+                        // Picked up by the startup publication in RulePublisher
                         System.out.println("Default rules seeded.");
-
-                        // Rebuild Drools container to include new rules
-                        ruleLoaderService.rebuildContainer();
                 }
 
                 // Always seed Tiered Spending Bonus if not present
@@ -91,7 +87,6 @@ public class RuleSeeder implements CommandLineRunner {
                                                                         "]}]"))
                                         .build();
                         ruleRepository.save(tieredTxRule);
-                        ruleLoaderService.rebuildContainer();
                         System.out.println("Tiered Spending Bonus rule seeded.");
                 }
         }
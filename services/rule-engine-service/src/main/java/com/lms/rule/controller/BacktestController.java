@@ -0,0 +1,37 @@
+package com.lms.rule.controller;
+
+import com.lms.rule.model.BacktestReport;
+import com.lms.rule.model.BacktestRequest;
+import com.lms.rule.service.BacktestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/rules/backtest")
+@RequiredArgsConstructor
+public class BacktestController {
+    private final BacktestService backtestService;
+
+    /**
+     * Starts a backtest of draft rules. Returns 202 with the RUNNING report;
+     * poll GET /{id} for the result.
+     */
+    @PostMapping
+    public ResponseEntity<BacktestReport> submit(@RequestBody BacktestRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(backtestService.submit(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BacktestReport> get(@PathVariable String id) {
+        return backtestService.find(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,22 +1,54 @@
 package com.lms.rule.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.rule.model.RuleEvaluationRequest;
 import com.lms.rule.model.TransactionFact;
 import com.lms.rule.service.RuleMatcherService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/rules")
 @RequiredArgsConstructor
 public class RuleEvaluationController {
     private final RuleMatcherService ruleMatcherService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/evaluate")
     public ResponseEntity<TransactionFact> evaluate(@RequestBody com.lms.rule.model.RuleEvaluationRequest request) {
         return ResponseEntity.ok(ruleMatcherService.evaluateRules(request.getTransaction(), request.getActivity()));
     }
+
+    /**
+     * Evaluates many transaction/activity pairs against one rule snapshot.
+     * The response is a JSON array in request order, streamed chunk by chunk
+     * as evaluation progresses; requests that could not be evaluated are null.
+     */
+    @PostMapping("/evaluate/batch")
+    public ResponseEntity<StreamingResponseBody> evaluateBatch(@RequestBody List<RuleEvaluationRequest> requests) {
+        List<CompletableFuture<List<TransactionFact>>> chunks = ruleMatcherService.evaluateBatch(requests);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                for (CompletableFuture<List<TransactionFact>> chunk : chunks) {
+                    for (TransactionFact result : chunk.join()) {
+                        generator.writeObject(result);
+                    }
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -1,5 +1,7 @@
 package com.lms.rule.controller;
 
+import com.lms.rule.engine.ActionPlanCompiler;
+import com.lms.rule.model.PublishTicket;
 import com.lms.rule.model.Rule;
 import com.lms.rule.repository.RuleRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,13 +14,17 @@ import java.util.List;
 @RequestMapping("/api/v1/rules")
 @RequiredArgsConstructor
 public class RuleManagementController {
+    // Rule changes compile in the background; clients can poll GET /publish/{ticketId}
+    static final String PUBLISH_TICKET_HEADER = "X-Rule-Publish-Ticket";
+
     private final RuleRepository ruleRepository;
 
     @PostMapping
     public ResponseEntity<Rule> createRule(@RequestBody Rule rule) {
+        ActionPlanCompiler.validate(rule);
         Rule saved = ruleRepository.save(rule);
-        ruleLoaderService.rebuildContainer();
-        return ResponseEntity.ok(saved);
+        PublishTicket ticket = rulePublisher.ruleSaved(saved);
+        return ResponseEntity.ok().header(PUBLISH_TICKET_HEADER, ticket.id()).body(saved);
     }
 
     @GetMapping
@@ -42,33 +48,42 @@ public class RuleManagementController {
             rule.setRewardType(ruleDetails.getRewardType());
             rule.setTargetTier(ruleDetails.getTargetTier());
             rule.setPriority(ruleDetails.getPriority());
+            rule.setRuleGroup(ruleDetails.getRuleGroup());
+            rule.setGroupMode(ruleDetails.getGroupMode());
             rule.setTargetProductCodes(ruleDetails.getTargetProductCodes());
+            ActionPlanCompiler.validate(rule);
 
             Rule saved = ruleRepository.save(rule);
-            ruleLoaderService.rebuildContainer();
-            return ResponseEntity.ok(saved);
+            PublishTicket ticket = rulePublisher.ruleSaved(saved);
+            return ResponseEntity.ok().header(PUBLISH_TICKET_HEADER, ticket.id()).body(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping
     public ResponseEntity<Void> deleteAllRules() {
         ruleRepository.deleteAll();
-        ruleLoaderService.rebuildContainer();
-        return ResponseEntity.noContent().build();
+        PublishTicket ticket = rulePublisher.reloadAll();
+        return ResponseEntity.noContent().header(PUBLISH_TICKET_HEADER, ticket.id()).build();
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteRule(@PathVariable Long id) {
         ruleRepository.deleteById(id);
-        ruleLoaderService.rebuildContainer();
-        return ResponseEntity.noContent().build();
+        PublishTicket ticket = rulePublisher.ruleRemoved(id);
+        return ResponseEntity.noContent().header(PUBLISH_TICKET_HEADER, ticket.id()).build();
     }
 
-    private final com.lms.rule.service.RuleLoaderService ruleLoaderService;
+    private final com.lms.rule.service.RulePublisher rulePublisher;
 
     @PostMapping("/reload")
-    public ResponseEntity<String> reloadRules() {
-        ruleLoaderService.rebuildContainer();
-        return ResponseEntity.ok("Rules reloaded successfully from database.");
+    public ResponseEntity<PublishTicket> reloadRules() {
+        return ResponseEntity.accepted().body(rulePublisher.reloadAll());
+    }
+
+    @GetMapping("/publish/{ticketId}")
+    public ResponseEntity<PublishTicket> publishStatus(@PathVariable String ticketId) {
+        return rulePublisher.ticket(ticketId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
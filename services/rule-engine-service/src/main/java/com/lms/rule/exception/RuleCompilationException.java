@@ -0,0 +1,28 @@
+package com.lms.rule.exception;
+
+import org.kie.api.builder.Message;
+
+import java.util.List;
+
+/**
+ * DRL that failed to compile. Carries the Drools error messages so they can be
+ * reported on the publish ticket.
+ */
+public class RuleCompilationException extends RuntimeException {
+    private final List<String> errors;
+
+    public RuleCompilationException(String message, List<Message> messages) {
+        super(message);
+        this.errors = messages.stream().map(Message::toString).toList();
+    }
+
+    // Errors of one stored rule, each labelled with the rule id
+    public RuleCompilationException(Long ruleId, List<String> errors) {
+        super("DRL of rule " + ruleId + " does not compile");
+        this.errors = errors;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
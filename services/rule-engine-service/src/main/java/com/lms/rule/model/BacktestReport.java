@@ -0,0 +1,77 @@
+package com.lms.rule.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a backtest run. While RUNNING only the identifying fields are set.
+ *
+ * totalLiability is what reward-service would have awarded for the replayed
+ * transactions: totalBasePoints, from its points_matrix for each fact's tier
+ * and amount, plus totalBonusPoints added by the rules. reward-service does
+ * not apply point multipliers, so transactionsMultiplied and
+ * averagePointMultiplier are reported for information and are not part of
+ * the liability.
+ */
+public record BacktestReport(
+        String id,
+        Status status,
+        String error,
+        String source,
+        LocalDateTime from,
+        LocalDateTime to,
+        int ruleCount,
+        long transactionsEvaluated,
+        long transactionsAwarded,
+        long totalLiability,
+        long totalBasePoints,
+        long totalBonusPoints,
+        long transactionsMultiplied,
+        double averagePointMultiplier,
+        Map<String, Long> pointsHistogram,
+        List<RuleResult> rules,
+        int parallelism,
+        long elapsedMs,
+        double throughputPerSecond,
+        Instant submittedAt,
+        Instant completedAt) {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public record RuleResult(
+            String ruleId,
+            String ruleName,
+            String ruleType,
+            long matched,
+            long fired,
+            long totalPoints,
+            long maxPoints,
+            double averagePoints) {
+    }
+
+    public static BacktestReport running(String id, String source, LocalDateTime from, LocalDateTime to,
+            int ruleCount, int parallelism) {
+        return new BacktestReport(id, Status.RUNNING, null, source, from, to, ruleCount, 0, 0, 0, 0, 0, 0, 0,
+                Map.of(), List.of(), parallelism, 0, 0, Instant.now(), null);
+    }
+
+    public BacktestReport completed(long evaluated, long awarded, long basePoints, long bonusPoints,
+            long multiplied, double averageMultiplier, Map<String, Long> histogram, List<RuleResult> results,
+            long elapsedMs) {
+        double throughput = elapsedMs > 0 ? evaluated * 1000.0 / elapsedMs : 0;
+        return new BacktestReport(id, Status.COMPLETED, null, source, from, to, ruleCount, evaluated, awarded,
+                basePoints + bonusPoints, basePoints, bonusPoints, multiplied, averageMultiplier, histogram, results,
+                parallelism, elapsedMs, throughput, submittedAt, Instant.now());
+    }
+
+    public BacktestReport failed(String error) {
+        return new BacktestReport(id, Status.FAILED, error, source, from, to, ruleCount, 0, 0, 0, 0, 0, 0, 0,
+                Map.of(), List.of(), parallelism, 0, 0, submittedAt, Instant.now());
+    }
+}
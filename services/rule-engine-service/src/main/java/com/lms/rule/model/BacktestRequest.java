@@ -0,0 +1,23 @@
+package com.lms.rule.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Draft rule set to replay against historical transactions. Transactions are
+ * read from the transactions table for [from, to), or from an NDJSON export
+ * in the backtest import directory when ndjsonFile is set.
+ */
+@Data
+public class BacktestRequest {
+    private List<Rule> rules;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String ndjsonFile;
+
+    // Not stored on transactions; sets every replayed fact's tier and base points unless the NDJSON row has its own
+    private String memberTier = "BRONZE";
+    private String role = "CUSTOMER";
+}
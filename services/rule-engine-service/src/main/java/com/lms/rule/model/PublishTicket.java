@@ -0,0 +1,41 @@
+package com.lms.rule.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Status of one rule publication running on the background publisher. A
+ * FAILED ticket with a snapshot version had its simple rules published while
+ * a rule's DRL did not compile.
+ */
+public record PublishTicket(
+        String id,
+        String operation, // SAVE, DELETE, RELOAD, SYNC (change published by another instance)
+        Long ruleId,
+        Status status,
+        List<String> errors,
+        Long snapshotVersion,
+        Instant submittedAt,
+        Instant completedAt) {
+
+    public enum Status {
+        QUEUED,
+        COMPILING,
+        PUBLISHED,
+        FAILED
+    }
+
+    public PublishTicket withStatus(Status status) {
+        return new PublishTicket(id, operation, ruleId, status, errors, snapshotVersion, submittedAt, completedAt);
+    }
+
+    public PublishTicket published(long version) {
+        return new PublishTicket(id, operation, ruleId, Status.PUBLISHED, List.of(), version, submittedAt,
+                Instant.now());
+    }
+
+    public PublishTicket failed(List<String> errors) {
+        return new PublishTicket(id, operation, ruleId, Status.FAILED, errors, snapshotVersion, submittedAt,
+                Instant.now());
+    }
+}
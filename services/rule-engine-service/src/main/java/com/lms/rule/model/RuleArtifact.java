@@ -0,0 +1,36 @@
+package com.lms.rule.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Executable-model kjar compiled from the database DRL rules, keyed by a
+ * hash of the rule set and the Drools release so any instance starting on
+ * the same rules and release can load it instead of compiling.
+ */
+@Entity
+@Table(name = "rule_artifacts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RuleArtifact {
+    @Id
+    private String ruleSetHash;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] content;
+
+    private Integer ruleCount;
+
+    // Cluster rule set version (rule_set_version) when last stored or reused
+    private Long ruleSetVersion;
+
+    private String droolsVersion;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
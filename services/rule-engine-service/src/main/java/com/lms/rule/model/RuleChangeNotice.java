@@ -0,0 +1,15 @@
+package com.lms.rule.model;
+
+import java.time.Instant;
+
+/**
+ * Broadcast on the rule change fanout after an instance published a change.
+ * ruleId is null for full reloads.
+ */
+public record RuleChangeNotice(
+        long version,
+        String origin,
+        String operation, // SAVE, DELETE, RELOAD
+        Long ruleId,
+        Instant publishedAt) {
+}
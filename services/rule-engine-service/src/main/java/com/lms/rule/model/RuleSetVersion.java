@@ -0,0 +1,29 @@
+package com.lms.rule.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Single-row counter of published rule changes, shared by all rule-engine
+ * instances. Incremented by the instance that publishes a change; the others
+ * compare it with the version they serve.
+ */
+@Entity
+@Table(name = "rule_set_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RuleSetVersion {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    private String updatedBy;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.lms.rule.repository;
+
+import com.lms.rule.model.RuleArtifact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RuleArtifactRepository extends JpaRepository<RuleArtifact, String> {
+
+    @Modifying
+    @Transactional
+    @Query("update RuleArtifact a set a.ruleSetVersion = :version "
+            + "where a.ruleSetHash = :ruleSetHash and (a.ruleSetVersion is null or a.ruleSetVersion < :version)")
+    int markVersion(@Param("ruleSetHash") String ruleSetHash, @Param("version") long version);
+
+    // Artifacts of rule sets no instance should still be serving
+    @Modifying
+    @Transactional
+    @Query("delete from RuleArtifact a where a.ruleSetVersion is null or a.ruleSetVersion < :version")
+    int deleteOlderThan(@Param("version") long version);
+}
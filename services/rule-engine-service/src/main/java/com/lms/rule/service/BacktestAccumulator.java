@@ -0,0 +1,187 @@
+package com.lms.rule.service;
+
+import com.lms.rule.engine.CompiledRule;
+import com.lms.rule.engine.RuleOutcomeListener;
+import com.lms.rule.model.BacktestReport;
+import com.lms.rule.model.TransactionFact;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCreatedEvent;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe tallies for one backtest run. Simple rules report through
+ * {@link RuleOutcomeListener}; DRL rules through {@link #droolsListener()},
+ * which attributes to each firing the bonus points it added to the fact.
+ * Base points and point multipliers are tallied per transaction only.
+ */
+final class BacktestAccumulator implements RuleOutcomeListener {
+    private static final long[] HISTOGRAM_BOUNDS = {1, 10, 100, 1000};
+    private static final String[] HISTOGRAM_LABELS = {"0", "1-9", "10-99", "100-999", "1000+"};
+
+    private final Map<String, RuleTally> tallies = new ConcurrentHashMap<>();
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder awarded = new LongAdder();
+    private final LongAdder basePoints = new LongAdder();
+    private final LongAdder bonusPoints = new LongAdder();
+    private final LongAdder multiplied = new LongAdder();
+    private final DoubleAdder multipliers = new DoubleAdder();
+    private final LongAdder[] histogram = new LongAdder[HISTOGRAM_LABELS.length];
+
+    BacktestAccumulator() {
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void matched(CompiledRule rule) {
+        tally(String.valueOf(rule.id()), rule.ruleName(), rule.ruleType()).matched.increment();
+    }
+
+    @Override
+    public void applied(CompiledRule rule, int points) {
+        tally(String.valueOf(rule.id()), rule.ruleName(), rule.ruleType()).fired(points);
+    }
+
+    /**
+     * Records the outcome of one replayed transaction once all rules have run.
+     */
+    void transaction(TransactionFact fact, int base) {
+        int points = fact.getBonusPoints();
+        evaluated.increment();
+        basePoints.add(base);
+        if (points > 0) {
+            awarded.increment();
+            bonusPoints.add(points);
+        }
+        if (fact.getPointMultiplier() != 1.0) {
+            multiplied.increment();
+            multipliers.add(fact.getPointMultiplier());
+        }
+        int bucket = 0;
+        while (bucket < HISTOGRAM_BOUNDS.length && points >= HISTOGRAM_BOUNDS[bucket]) {
+            bucket++;
+        }
+        histogram[bucket].increment();
+    }
+
+    DefaultAgendaEventListener droolsListener() {
+        return new DefaultAgendaEventListener() {
+            // A pooled session fires on one thread at a time, so the value before a firing is per thread
+            private final ThreadLocal<Integer> pointsBefore = ThreadLocal.withInitial(() -> 0);
+
+            @Override
+            public void matchCreated(MatchCreatedEvent event) {
+                String name = event.getMatch().getRule().getName();
+                tally(name, name, DroolsMetricsListener.RULE_TYPE).matched.increment();
+            }
+
+            @Override
+            public void beforeMatchFired(BeforeMatchFiredEvent event) {
+                pointsBefore.set(bonusPoints(event.getMatch().getObjects()));
+            }
+
+            @Override
+            public void afterMatchFired(AfterMatchFiredEvent event) {
+                String name = event.getMatch().getRule().getName();
+                int delta = bonusPoints(event.getMatch().getObjects()) - pointsBefore.get();
+                tally(name, name, DroolsMetricsListener.RULE_TYPE).fired(Math.max(delta, 0));
+            }
+        };
+    }
+
+    long evaluated() {
+        return evaluated.sum();
+    }
+
+    long awarded() {
+        return awarded.sum();
+    }
+
+    long basePoints() {
+        return basePoints.sum();
+    }
+
+    long bonusPoints() {
+        return bonusPoints.sum();
+    }
+
+    long multiplied() {
+        return multiplied.sum();
+    }
+
+    // Over the multiplied transactions only
+    double averageMultiplier() {
+        long count = multiplied.sum();
+        return count > 0 ? multipliers.sum() / count : 1.0;
+    }
+
+    Map<String, Long> histogram() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < HISTOGRAM_LABELS.length; i++) {
+            result.put(HISTOGRAM_LABELS[i], histogram[i].sum());
+        }
+        return result;
+    }
+
+    // Most bonus points first
+    List<BacktestReport.RuleResult> results() {
+        return tallies.values().stream()
+                .map(RuleTally::result)
+                .sorted(Comparator.comparingLong(BacktestReport.RuleResult::totalPoints).reversed()
+                        .thenComparing(BacktestReport.RuleResult::ruleId))
+                .toList();
+    }
+
+    private RuleTally tally(String ruleId, String ruleName, String ruleType) {
+        return tallies.computeIfAbsent(ruleType + ':' + ruleId, k -> new RuleTally(ruleId, ruleName, ruleType));
+    }
+
+    private static int bonusPoints(List<Object> objects) {
+        for (Object object : objects) {
+            if (object instanceof TransactionFact fact) {
+                return fact.getBonusPoints();
+            }
+        }
+        return 0;
+    }
+
+    private static final class RuleTally {
+        final String ruleId;
+        final String ruleName;
+        final String ruleType;
+        final LongAdder matched = new LongAdder();
+        final LongAdder fired = new LongAdder();
+        final LongAdder points = new LongAdder();
+        final LongAccumulator maxPoints = new LongAccumulator(Long::max, 0);
+
+        RuleTally(String ruleId, String ruleName, String ruleType) {
+            this.ruleId = ruleId;
+            this.ruleName = ruleName;
+            this.ruleType = ruleType;
+        }
+
+        void fired(int awarded) {
+            fired.increment();
+            points.add(awarded);
+            maxPoints.accumulate(awarded);
+        }
+
+        BacktestReport.RuleResult result() {
+            long firings = fired.sum();
+            long total = points.sum();
+            return new BacktestReport.RuleResult(ruleId, ruleName, ruleType, matched.sum(), firings, total,
+                    maxPoints.get(), firings > 0 ? (double) total / firings : 0);
+        }
+    }
+}
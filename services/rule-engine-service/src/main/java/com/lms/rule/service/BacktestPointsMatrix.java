@@ -0,0 +1,116 @@
+package com.lms.rule.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Base points of a replayed transaction, computed from reward-service's
+ * points_matrix table the way its TieredPointCalculationService does: ranges
+ * are bounded by the distinct maxAmounts of all cells (inclusive, the last
+ * one open-ended), each tier takes its cell with the smallest maxAmount
+ * covering the range, and unknown tiers get the BRONZE row. Without cells
+ * the matrix reward-service seeds the table with applies.
+ */
+final class BacktestPointsMatrix {
+    private static final String DEFAULT_TIER = "BRONZE";
+
+    private final String[] tiers;
+    private final BigDecimal[] bounds;
+    // points[tier][range]
+    private final int[][] points;
+    private final int defaultTier;
+
+    private BacktestPointsMatrix(String[] tiers, BigDecimal[] bounds, int[][] points) {
+        this.tiers = tiers;
+        this.bounds = bounds;
+        this.points = points;
+        this.defaultTier = Math.max(Arrays.asList(tiers).indexOf(DEFAULT_TIER), 0);
+    }
+
+    /**
+     * @throws IllegalArgumentException when a tier has no open-ended range
+     */
+    static BacktestPointsMatrix of(List<Cell> cells) {
+        if (cells.isEmpty()) {
+            return defaults();
+        }
+        TreeSet<BigDecimal> bounds = new TreeSet<>();
+        TreeSet<String> tiers = new TreeSet<>();
+        for (Cell cell : cells) {
+            tiers.add(cell.tier());
+            if (cell.maxAmount() != null) {
+                bounds.add(cell.maxAmount().stripTrailingZeros());
+            }
+        }
+        String[] tierNames = tiers.toArray(String[]::new);
+        BigDecimal[] boundValues = bounds.toArray(BigDecimal[]::new);
+        int[][] points = new int[tierNames.length][boundValues.length + 1];
+        for (int t = 0; t < tierNames.length; t++) {
+            for (int range = 0; range <= boundValues.length; range++) {
+                BigDecimal upper = range < boundValues.length ? boundValues[range] : null;
+                Cell best = null;
+                for (Cell cell : cells) {
+                    if (tierNames[t].equals(cell.tier()) && covers(cell.maxAmount(), upper)
+                            && (best == null || narrower(cell.maxAmount(), best.maxAmount()))) {
+                        best = cell;
+                    }
+                }
+                if (best == null) {
+                    throw new IllegalArgumentException("Tier " + tierNames[t] + " has no open-ended range");
+                }
+                points[t][range] = best.points();
+            }
+        }
+        return new BacktestPointsMatrix(tierNames, boundValues, points);
+    }
+
+    static BacktestPointsMatrix defaults() {
+        String[] tiers = {"BRONZE", "SILVER", "GOLD", "PLATINUM", "DIAMOND"};
+        BigDecimal[] maxAmounts = {BigDecimal.valueOf(100), BigDecimal.valueOf(1000), BigDecimal.valueOf(5000), null};
+        int[][] points = {{1, 2, 3, 5}, {1, 2, 4, 6}, {2, 3, 5, 8}, {3, 4, 6, 10}, {5, 6, 8, 15}};
+        List<Cell> cells = new ArrayList<>();
+        for (int t = 0; t < tiers.length; t++) {
+            for (int r = 0; r < maxAmounts.length; r++) {
+                cells.add(new Cell(tiers[t], maxAmounts[r], points[t][r]));
+            }
+        }
+        return of(cells);
+    }
+
+    int points(BigDecimal amount, String tier) {
+        int t = defaultTier;
+        for (int i = 0; i < tiers.length; i++) {
+            if (tiers[i].equals(tier)) {
+                t = i;
+                break;
+            }
+        }
+        // First bound at or above the amount; past the last bound is the open-ended range
+        int low = 0;
+        int high = bounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bounds[mid].compareTo(amount) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return points[t][low];
+    }
+
+    // A null maxAmount is unlimited
+    private static boolean covers(BigDecimal maxAmount, BigDecimal upper) {
+        return maxAmount == null || (upper != null && maxAmount.compareTo(upper) >= 0);
+    }
+
+    private static boolean narrower(BigDecimal candidate, BigDecimal current) {
+        return candidate != null && (current == null || candidate.compareTo(current) < 0);
+    }
+
+    record Cell(String tier, BigDecimal maxAmount, int points) {
+    }
+}
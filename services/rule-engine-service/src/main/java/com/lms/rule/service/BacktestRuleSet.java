@@ -0,0 +1,110 @@
+package com.lms.rule.service;
+
+import com.lms.rule.engine.ActionPlanCompiler;
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.engine.RuleTimeline;
+import com.lms.rule.exception.RuleCompilationException;
+import com.lms.rule.model.Rule;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * A draft rule set compiled in isolation for a backtest: its own snapshots
+ * for the simple rules, one per validity transition so each transaction sees
+ * the rules active at its date, and its own KieContainer, under a throwaway
+ * ReleaseId, for the DRL rules. Neither is visible to live evaluation, and
+ * close() removes the module from the KieRepository again.
+ */
+final class BacktestRuleSet implements AutoCloseable {
+    private static final String RULES_DIR = "src/main/resources/rules/";
+
+    private final KieServices kieServices;
+    private final ReleaseId releaseId;
+    // Transition instant -> snapshot of the rules active from then on
+    private final NavigableMap<LocalDateTime, RuleSnapshot> snapshots;
+    private final KieContainer container;
+
+    private BacktestRuleSet(KieServices kieServices, ReleaseId releaseId,
+            NavigableMap<LocalDateTime, RuleSnapshot> snapshots, KieContainer container) {
+        this.kieServices = kieServices;
+        this.releaseId = releaseId;
+        this.snapshots = snapshots;
+        this.container = container;
+    }
+
+    /**
+     * Validates and compiles the drafts. Drafts without an id get negative
+     * ids so they cannot be mistaken for stored rules in the report.
+     */
+    static BacktestRuleSet compile(List<Rule> drafts) {
+        long syntheticId = 0;
+        for (Rule draft : drafts) {
+            if (draft.getId() == null) {
+                draft.setId(--syntheticId);
+            }
+            ActionPlanCompiler.validate(draft);
+        }
+
+        KieServices kieServices = KieServices.Factory.get();
+        ReleaseId releaseId = kieServices.newReleaseId("com.lms.rule", "backtest-" + UUID.randomUUID(), "1.0.0");
+        KieFileSystem fileSystem = kieServices.newKieFileSystem();
+        fileSystem.generateAndWritePomXML(releaseId);
+        boolean hasDrl = false;
+        for (Rule draft : drafts) {
+            if (Boolean.TRUE.equals(draft.getIsActive()) && draft.getDrlContent() != null
+                    && !draft.getDrlContent().isEmpty()) {
+                fileSystem.write(RULES_DIR + "draft_" + draft.getId() + ".drl", DrlRuleAttributes.apply(draft));
+                hasDrl = true;
+            }
+        }
+
+        KieContainer container = null;
+        if (hasDrl) {
+            KieBuilder builder = kieServices.newKieBuilder(fileSystem);
+            builder.buildAll();
+            if (builder.getResults().hasMessages(Message.Level.ERROR)) {
+                kieServices.getRepository().removeKieModule(releaseId);
+                throw new RuleCompilationException("Build Errors occurred during draft rule compilation",
+                        builder.getResults().getMessages(Message.Level.ERROR));
+            }
+            container = kieServices.newKieContainer(releaseId);
+        }
+        return new BacktestRuleSet(kieServices, releaseId, timeline(drafts), container);
+    }
+
+    private static NavigableMap<LocalDateTime, RuleSnapshot> timeline(List<Rule> drafts) {
+        NavigableMap<LocalDateTime, RuleSnapshot> snapshots = new TreeMap<>();
+        snapshots.put(LocalDateTime.MIN, RuleSnapshot.build(0L, drafts, LocalDateTime.MIN));
+        for (LocalDateTime transition : RuleTimeline.transitions(drafts)) {
+            snapshots.put(transition, RuleSnapshot.build(snapshots.size(), drafts, transition));
+        }
+        return snapshots;
+    }
+
+    RuleSnapshot snapshotAt(LocalDateTime at) {
+        return snapshots.floorEntry(at).getValue();
+    }
+
+    // Null when the drafts contain no DRL rules
+    KieContainer container() {
+        return container;
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.dispose();
+            kieServices.getRepository().removeKieModule(releaseId);
+        }
+    }
+}
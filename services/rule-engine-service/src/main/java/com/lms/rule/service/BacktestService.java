@@ -0,0 +1,389 @@
+package com.lms.rule.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.rule.engine.InvalidRuleException;
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.engine.SimpleRuleEvaluator;
+import com.lms.rule.model.BacktestReport;
+import com.lms.rule.model.BacktestRequest;
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.TransactionFact;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Replays historical transactions through a draft rule set and reports what
+ * it would have awarded. The drafts are compiled into their own snapshot and
+ * KieContainer ({@link BacktestRuleSet}), so a backtest never touches the
+ * live rules, rule metrics or audit trail.
+ *
+ * Transactions are streamed ordered by member and date and cut into chunks
+ * that never split a member; chunks are evaluated on a fork-join pool while
+ * the reader continues, with at most two chunks per worker in flight. Each
+ * chunk rebuilds the member's rolling monthly and quarterly activity as the
+ * reward service computes it at evaluation time, so rows from the three
+ * months before the window are read to warm the aggregates up.
+ *
+ * Each transaction's base points come from the points_matrix table, read
+ * once per run ({@link BacktestPointsMatrix}), so the report's liability is
+ * what reward-service would have awarded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BacktestService {
+    private static final String HISTORY_SQL = "SELECT member_id, amount, payment_method, product_category, "
+            + "transaction_date, status FROM transactions "
+            + "WHERE transaction_date >= ? AND transaction_date < ? AND member_id IS NOT NULL AND amount IS NOT NULL "
+            + "ORDER BY member_id, transaction_date";
+    private static final String POINTS_MATRIX_SQL = "SELECT tier, max_amount, points FROM points_matrix";
+    private static final int WARM_UP_MONTHS = 3;
+    private static final int MAX_REPORTS = 64;
+
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    // 0 = one worker per core
+    @Value("${rules.backtest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${rules.backtest.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${rules.backtest.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${rules.backtest.import-dir:${java.io.tmpdir}/lms-backtest}")
+    private String importDir;
+
+    // Most recent runs only
+    private final Map<String, BacktestReport> reports = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BacktestReport> eldest) {
+                    return size() > MAX_REPORTS;
+                }
+            });
+
+    private ExecutorService jobExecutor;
+    private ForkJoinPool workers;
+
+    @PostConstruct
+    void start() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        jobExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "rule-backtest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Compiles the drafts and queues the run. Invalid drafts fail here, before
+     * anything is read; the returned report is RUNNING and can be polled.
+     */
+    public BacktestReport submit(BacktestRequest request) {
+        if (request.getRules() == null || request.getRules().isEmpty()) {
+            throw new InvalidRuleException("A backtest needs at least one draft rule");
+        }
+        Path ndjson = request.getNdjsonFile() != null ? importFile(request.getNdjsonFile()) : null;
+        if (ndjson == null && (request.getFrom() == null || request.getTo() == null)) {
+            throw new InvalidRuleException("A backtest needs either from and to, or an ndjsonFile");
+        }
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new InvalidRuleException("Backtest from must be before to");
+        }
+
+        BacktestRuleSet ruleSet = BacktestRuleSet.compile(request.getRules());
+        String id = UUID.randomUUID().toString();
+        BacktestReport report = BacktestReport.running(id, ndjson != null ? ndjson.getFileName().toString() : "transactions",
+                request.getFrom(), request.getTo(), request.getRules().size(), parallelism);
+        reports.put(id, report);
+        try {
+            jobExecutor.execute(() -> run(report, request, ndjson, ruleSet));
+        } catch (RuntimeException e) {
+            ruleSet.close();
+            reports.put(id, report.failed("Backtest executor unavailable"));
+            throw e;
+        }
+        return report;
+    }
+
+    public Optional<BacktestReport> find(String id) {
+        return Optional.ofNullable(reports.get(id));
+    }
+
+    private void run(BacktestReport report, BacktestRequest request, Path ndjson, BacktestRuleSet ruleSet) {
+        long started = System.nanoTime();
+        BacktestAccumulator accumulator = new BacktestAccumulator();
+        KieSessionRunner runner = ruleSet.container() != null
+                ? new KieSessionRunner(ruleSet.container(), KieSessionRunner.Mode.POOLED, parallelism,
+                        accumulator.droolsListener())
+                : null;
+        try {
+            Replay replay = new Replay(ruleSet, runner, accumulator, pointsMatrix(), request);
+            if (ndjson != null) {
+                readNdjson(ndjson, request, replay);
+            } else {
+                readTransactions(request, replay);
+            }
+            replay.finish();
+
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            reports.put(report.id(), report.completed(accumulator.evaluated(), accumulator.awarded(),
+                    accumulator.basePoints(), accumulator.bonusPoints(), accumulator.multiplied(), accumulator.averageMultiplier(),
+                    accumulator.histogram(), accumulator.results(), elapsedMs));
+            log.info("Backtest {} replayed {} transactions in {} ms", report.id(), accumulator.evaluated(), elapsedMs);
+        } catch (Exception e) {
+            log.error("Backtest {} failed", report.id(), e);
+            reports.put(report.id(), report.failed(e.getMessage()));
+        } finally {
+            if (runner != null) {
+                runner.close();
+            }
+            ruleSet.close();
+        }
+    }
+
+    // An invalid matrix fails the run; a missing table means reward-service never seeded it
+    private BacktestPointsMatrix pointsMatrix() {
+        List<BacktestPointsMatrix.Cell> cells;
+        try {
+            cells = new JdbcTemplate(dataSource).query(POINTS_MATRIX_SQL, (rs, rowNum) -> new BacktestPointsMatrix.Cell(
+                    rs.getString("tier"), rs.getBigDecimal("max_amount"), rs.getInt("points")));
+        } catch (DataAccessException e) {
+            log.warn("Could not read points_matrix, backtest uses the default matrix: {}", e.getMessage());
+            return BacktestPointsMatrix.defaults();
+        }
+        return BacktestPointsMatrix.of(cells);
+    }
+
+    private void readTransactions(BacktestRequest request, Replay replay) {
+        // PostgreSQL only streams with a fetch size inside a transaction
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> streaming.query(HISTORY_SQL, (RowCallbackHandler) rs -> {
+            String rowStatus = rs.getString("status");
+            replay.accept(new HistoricalTransaction(
+                    rs.getLong("member_id"),
+                    rs.getBigDecimal("amount"),
+                    rs.getString("payment_method"),
+                    rs.getString("product_category"),
+                    rs.getTimestamp("transaction_date").toLocalDateTime(),
+                    null,
+                    null,
+                    rowStatus));
+        }, Timestamp.valueOf(request.getFrom().minusMonths(WARM_UP_MONTHS)), Timestamp.valueOf(request.getTo())));
+    }
+
+    private void readNdjson(Path file, BacktestRequest request, Replay replay) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    HistoricalTransaction row = objectMapper.readValue(line, HistoricalTransaction.class);
+                    if (row.memberId() != null && row.amount() != null && row.transactionDate() != null
+                            && (request.getTo() == null || row.transactionDate().isBefore(request.getTo()))) {
+                        replay.accept(row);
+                    }
+                }
+            }
+        }
+    }
+
+    // Exports are only read from the import directory
+    private Path importFile(String name) {
+        Path dir = Path.of(importDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(name).normalize();
+        if (!file.startsWith(dir) || !Files.isRegularFile(file)) {
+            throw new InvalidRuleException("Backtest file not found in import directory: " + name);
+        }
+        return file;
+    }
+
+    /**
+     * One transaction row. transactionDate and memberId ordering is expected
+     * from both sources; memberTier and role override the request defaults.
+     */
+    record HistoricalTransaction(
+            Long memberId,
+            BigDecimal amount,
+            String paymentMethod,
+            String productCategory,
+            LocalDateTime transactionDate,
+            String memberTier,
+            String role,
+            String status) {
+
+        boolean settled() {
+            return !"FAILED".equals(status) && !"REVERSED".equals(status);
+        }
+    }
+
+    /**
+     * Cuts the ordered stream into member-aligned chunks and evaluates them
+     * on the worker pool. Only the reading thread calls accept and finish.
+     */
+    private final class Replay {
+        private final BacktestRuleSet ruleSet;
+        private final KieSessionRunner runner;
+        private final BacktestAccumulator accumulator;
+        private final BacktestPointsMatrix pointsMatrix;
+        private final BacktestRequest request;
+        private final Semaphore inFlight = new Semaphore(parallelism * 2);
+        private final List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        private List<HistoricalTransaction> chunk = new ArrayList<>(chunkSize);
+        private Long lastMember;
+
+        Replay(BacktestRuleSet ruleSet, KieSessionRunner runner, BacktestAccumulator accumulator,
+                BacktestPointsMatrix pointsMatrix, BacktestRequest request) {
+            this.ruleSet = ruleSet;
+            this.runner = runner;
+            this.accumulator = accumulator;
+            this.pointsMatrix = pointsMatrix;
+            this.request = request;
+        }
+
+        void accept(HistoricalTransaction row) {
+            if (!row.memberId().equals(lastMember) && chunk.size() >= chunkSize) {
+                dispatch();
+            }
+            lastMember = row.memberId();
+            chunk.add(row);
+        }
+
+        void finish() {
+            if (!chunk.isEmpty()) {
+                dispatch();
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        }
+
+        private void dispatch() {
+            List<HistoricalTransaction> rows = chunk;
+            chunk = new ArrayList<>(chunkSize);
+            inFlight.acquireUninterruptibly();
+            chunks.add(CompletableFuture.runAsync(() -> evaluate(rows), workers)
+                    .whenComplete((ignored, error) -> inFlight.release()));
+        }
+
+        private void evaluate(List<HistoricalTransaction> rows) {
+            RollingActivity activity = new RollingActivity();
+            for (HistoricalTransaction row : rows) {
+                activity.add(row);
+                if (!row.settled() || (request.getFrom() != null && row.transactionDate().isBefore(request.getFrom()))) {
+                    continue;
+                }
+
+                TransactionFact fact = new TransactionFact();
+                fact.setMemberId(row.memberId());
+                fact.setAmount(row.amount());
+                fact.setPaymentMethod(row.paymentMethod());
+                fact.setProductCategory(row.productCategory());
+                fact.setMemberTier(row.memberTier() != null ? row.memberTier() : request.getMemberTier());
+                fact.setRole(row.role() != null ? row.role() : request.getRole());
+                int basePoints = pointsMatrix.points(row.amount(), fact.getMemberTier());
+
+                MemberActivityFact memberActivity = activity.fact(row.memberId());
+                RuleSnapshot snapshot = ruleSet.snapshotAt(row.transactionDate());
+                SimpleRuleEvaluator.evaluate(snapshot, fact, memberActivity, accumulator);
+                if (runner != null) {
+                    runner.fire(fact, memberActivity);
+                }
+                accumulator.transaction(fact, basePoints);
+            }
+        }
+    }
+
+    /**
+     * Trailing one- and three-month activity of the current member, including
+     * the transaction being evaluated, like the transaction summaries the
+     * reward service fetches.
+     */
+    private static final class RollingActivity {
+        private final ArrayDeque<HistoricalTransaction> month = new ArrayDeque<>();
+        private final ArrayDeque<HistoricalTransaction> quarter = new ArrayDeque<>();
+        private BigDecimal monthSpent = BigDecimal.ZERO;
+        private BigDecimal quarterSpent = BigDecimal.ZERO;
+        private Long memberId;
+
+        void add(HistoricalTransaction row) {
+            if (!row.memberId().equals(memberId)) {
+                memberId = row.memberId();
+                month.clear();
+                quarter.clear();
+                monthSpent = BigDecimal.ZERO;
+                quarterSpent = BigDecimal.ZERO;
+            }
+            monthSpent = evict(month, row.transactionDate().minusMonths(1), monthSpent);
+            quarterSpent = evict(quarter, row.transactionDate().minusMonths(3), quarterSpent);
+            month.addLast(row);
+            quarter.addLast(row);
+            monthSpent = monthSpent.add(row.amount());
+            quarterSpent = quarterSpent.add(row.amount());
+        }
+
+        MemberActivityFact fact(Long memberId) {
+            MemberActivityFact fact = new MemberActivityFact();
+            fact.setMemberId(memberId);
+            fact.setMonthlyTransactionCount(month.size());
+            fact.setMonthlyTotalSpent(monthSpent);
+            fact.setQuarterlyTransactionCount(quarter.size());
+            fact.setQuarterlyTotalSpent(quarterSpent);
+            fact.setTransactionCount(month.size());
+            fact.setTotalSpent(monthSpent);
+            return fact;
+        }
+
+        private static BigDecimal evict(ArrayDeque<HistoricalTransaction> window, LocalDateTime since, BigDecimal spent) {
+            while (!window.isEmpty() && window.peekFirst().transactionDate().isBefore(since)) {
+                spent = spent.subtract(window.removeFirst().amount());
+            }
+            return spent;
+        }
+    }
+}
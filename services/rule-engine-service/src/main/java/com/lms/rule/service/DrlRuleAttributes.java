@@ -0,0 +1,52 @@
+package com.lms.rule.service;
+
+import com.lms.rule.engine.RuleGroup;
+import com.lms.rule.model.Rule;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Carries a stored rule's priority and EXCLUSIVE group into its DRL: every
+ * rule declared in the content gets salience = priority and, for exclusive
+ * groups, an activation-group, so Drools fires only the highest-salience
+ * match of the group. Attributes written in the DRL itself are left alone.
+ */
+final class DrlRuleAttributes {
+    private static final Pattern RULE_HEADER = Pattern.compile("(?m)^\\s*rule\\s+(\"[^\"]*\"|'[^']*'|\\S+)");
+    private static final Pattern LHS_OR_RHS = Pattern.compile("\\b(when|then)\\b");
+    private static final Pattern SALIENCE = Pattern.compile("\\bsalience\\b");
+    private static final Pattern ACTIVATION_GROUP = Pattern.compile("\\bactivation-group\\b");
+
+    private DrlRuleAttributes() {
+    }
+
+    static String apply(Rule rule) {
+        String drl = rule.getDrlContent();
+        String group = RuleGroup.exclusiveGroup(rule);
+        if (drl == null || (rule.getPriority() == null && group == null)) {
+            return drl;
+        }
+
+        StringBuilder out = new StringBuilder(drl.length() + 64);
+        Matcher header = RULE_HEADER.matcher(drl);
+        int copied = 0;
+        while (header.find()) {
+            Matcher body = LHS_OR_RHS.matcher(drl);
+            if (!body.find(header.end())) {
+                break;
+            }
+            String attributes = drl.substring(header.end(), body.start());
+            StringBuilder added = new StringBuilder();
+            if (rule.getPriority() != null && !SALIENCE.matcher(attributes).find()) {
+                added.append("salience ").append(rule.getPriority()).append('\n');
+            }
+            if (group != null && !ACTIVATION_GROUP.matcher(attributes).find()) {
+                added.append("activation-group \"").append(group.replace("\"", "")).append("\"\n");
+            }
+            out.append(drl, copied, body.start()).append(added);
+            copied = body.start();
+        }
+        return out.append(drl.substring(copied)).toString();
+    }
+}
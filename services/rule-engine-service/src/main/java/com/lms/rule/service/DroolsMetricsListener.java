@@ -0,0 +1,27 @@
+package com.lms.rule.service;
+
+import lombok.RequiredArgsConstructor;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCreatedEvent;
+
+/**
+ * Counts Drools matches and firings per rule. DRL rules are identified by
+ * their rule name, which is unique within a KieBase.
+ */
+@RequiredArgsConstructor
+public class DroolsMetricsListener extends DefaultAgendaEventListener {
+    static final String RULE_TYPE = "DROOLS";
+
+    private final RuleMetrics ruleMetrics;
+
+    @Override
+    public void matchCreated(MatchCreatedEvent event) {
+        ruleMetrics.matched(event.getMatch().getRule().getName(), RULE_TYPE);
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        ruleMetrics.fired(event.getMatch().getRule().getName(), RULE_TYPE, 0);
+    }
+}
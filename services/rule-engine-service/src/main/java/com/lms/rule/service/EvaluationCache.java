@@ -0,0 +1,195 @@
+package com.lms.rule.service;
+
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.TransactionFact;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.KieContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional memoization of evaluation outcomes (rules.cache.enabled).
+ *
+ * Entries belong to one scope: a rule snapshot version together with the
+ * Drools container it was evaluated with. Any rule change or validity
+ * transition produces a new scope, which starts empty, so an outcome is
+ * never served for rules other than the ones that computed it. Within a
+ * scope, outcomes are keyed by a {@link FingerprintScheme} fingerprint.
+ *
+ * A hit restores bonus points, multiplier and discount without running
+ * either phase, and writes the same audit records as the Drools rules it
+ * stands in for. Per-rule counters only count evaluations that ran. Once a
+ * scope holds rules.cache.max-entries outcomes, further misses are not stored.
+ */
+@Service
+@Slf4j
+public class EvaluationCache {
+    private final RuleLoaderService ruleLoaderService;
+    private final RuleAuditWriter ruleAuditWriter;
+
+    @Value("${rules.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${rules.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypassed;
+    private final ThreadLocal<List<String>> firings = new ThreadLocal<>();
+    private volatile Scope scope;
+
+    public EvaluationCache(MeterRegistry meterRegistry, RuleLoaderService ruleLoaderService,
+            RuleAuditWriter ruleAuditWriter) {
+        this.ruleLoaderService = ruleLoaderService;
+        this.ruleAuditWriter = ruleAuditWriter;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.bypassed = requests(meterRegistry, "bypass");
+        Gauge.builder("loyalty.rules.cache.hit.ratio", this, c -> ratio(c.hits, c.misses))
+                .description("Share of cacheable evaluations served from the cache")
+                .register(meterRegistry);
+        Gauge.builder("loyalty.rules.cache.miss.ratio", this, c -> ratio(c.misses, c.hits))
+                .description("Share of cacheable evaluations that ran the rules")
+                .register(meterRegistry);
+        Gauge.builder("loyalty.rules.cache.size", this, c -> c.scope != null ? c.scope.entries.size() : 0)
+                .description("Outcomes cached for the current rule snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Serves the fact's outcome from the cache, or runs the evaluation and
+     * caches what it produced.
+     */
+    public void evaluate(RuleSnapshot snapshot, KieContainer container, TransactionFact fact,
+            MemberActivityFact activity, Runnable evaluation) {
+        if (!enabled) {
+            evaluation.run();
+            return;
+        }
+        Scope current = scope(snapshot, container);
+        FingerprintScheme.Fingerprint fingerprint = current != null && current.scheme != null
+                ? current.scheme.fingerprint(snapshot, fact, activity)
+                : null;
+        if (fingerprint == null) {
+            bypassed.increment();
+            evaluation.run();
+            return;
+        }
+
+        Outcome cached = current.entries.get(fingerprint);
+        if (cached != null) {
+            hits.increment();
+            cached.applyTo(fact);
+            for (String rule : cached.firedRules()) {
+                ruleAuditWriter.submit(fact.getMemberId(), rule, "GENERAL", "Fired");
+            }
+            return;
+        }
+
+        misses.increment();
+        List<String> fired = new ArrayList<>(2);
+        firings.set(fired);
+        try {
+            evaluation.run();
+        } finally {
+            firings.remove();
+        }
+        if (current.entries.size() < maxEntries) {
+            current.entries.putIfAbsent(fingerprint, Outcome.of(fact, fired));
+        }
+    }
+
+    /**
+     * Records the Drools rules fired during a cache miss so a hit can audit
+     * them. Registered on every session runner.
+     */
+    AgendaEventListener firingRecorder() {
+        return new DefaultAgendaEventListener() {
+            @Override
+            public void afterMatchFired(AfterMatchFiredEvent event) {
+                List<String> fired = firings.get();
+                if (fired != null) {
+                    fired.add(event.getMatch().getRule().getName());
+                }
+            }
+        };
+    }
+
+    private Scope scope(RuleSnapshot snapshot, KieContainer container) {
+        Scope current = scope;
+        if (current != null && current.version == snapshot.getVersion() && current.container == container) {
+            return current;
+        }
+        // A batch pinned to an older snapshot must not evict the live scope
+        if (current != null && snapshot.getVersion() < current.version) {
+            return null;
+        }
+        synchronized (this) {
+            current = scope;
+            if (current == null || current.version != snapshot.getVersion() || current.container != container) {
+                Collection<String> drl = ruleLoaderService.drlSources(container);
+                FingerprintScheme scheme = drl != null ? FingerprintScheme.of(snapshot, drl) : null;
+                current = new Scope(snapshot.getVersion(), container, scheme);
+                scope = current;
+                log.info("Evaluation cache reset for rule snapshot v{} ({})", snapshot.getVersion(),
+                        scheme != null ? "cacheable" : "rules not cacheable");
+            }
+            return current;
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("loyalty.rules.cache.requests")
+                .description("Evaluations by cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static double ratio(Counter part, Counter rest) {
+        double total = part.count() + rest.count();
+        return total > 0 ? part.count() / total : 0;
+    }
+
+    private static final class Scope {
+        final long version;
+        final KieContainer container;
+        final FingerprintScheme scheme;
+        final Map<FingerprintScheme.Fingerprint, Outcome> entries = new ConcurrentHashMap<>();
+
+        Scope(long version, KieContainer container, FingerprintScheme scheme) {
+            this.version = version;
+            this.container = container;
+            this.scheme = scheme;
+        }
+    }
+
+    private record Outcome(double pointMultiplier, int bonusPoints, String rewardType, double discountPercentage,
+            List<String> firedRules) {
+
+        static Outcome of(TransactionFact fact, List<String> firedRules) {
+            return new Outcome(fact.getPointMultiplier(), fact.getBonusPoints(), fact.getRewardType(),
+                    fact.getDiscountPercentage(), List.copyOf(firedRules));
+        }
+
+        void applyTo(TransactionFact fact) {
+            fact.setPointMultiplier(pointMultiplier);
+            fact.setBonusPoints(bonusPoints);
+            fact.setRewardType(rewardType);
+            fact.setDiscountPercentage(discountPercentage);
+        }
+    }
+}
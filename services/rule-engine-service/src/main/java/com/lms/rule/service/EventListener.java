@@ -1,184 +1,253 @@
 package com.lms.rule.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.lms.rule.model.Rule;
-import com.lms.rule.repository.RuleRepository;
+import com.lms.rule.config.RabbitConfig;
+import com.lms.rule.engine.ActionPlan;
+import com.lms.rule.engine.AwardPoints;
+import com.lms.rule.engine.CompiledEventRule;
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.engine.TieredPoints;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Applies EVENT rules to event.occurrence.queue.
+ *
+ * By default each message is evaluated and its awards published on their
+ * own. With rules.events.batch.enabled the queue is consumed in batches
+ * instead: a batch is evaluated against one rule snapshot and its awards are
+ * published together under a single publisher confirm.
+ *
+ * Events without a string eventType are skipped. In batch mode each event
+ * is settled on its own: an unreadable or invalid event is moved to
+ * event.occurrence.parking straight away, and one whose evaluation fails is
+ * requeued on its first delivery and parked on its second. If it cannot be
+ * parked it is requeued rather than dropped. Only a batch whose awards the
+ * broker does not confirm is requeued as a whole.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EventListener {
+    private static final String RULE_TYPE = "EVENT";
+    private static final TypeReference<Map<String, Object>> EVENT = new TypeReference<>() {
+    };
 
-    private final RuleRepository ruleRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final RuleSnapshotService ruleSnapshotService;
+    private final PointsAwardPublisher pointsAwardPublisher;
+    private final RuleMetrics ruleMetrics;
     private final ObjectMapper objectMapper;
+    private final RabbitTemplate rabbitTemplate;
 
-    @RabbitListener(queues = "event.occurrence.queue")
+    @Value("${rules.events.batch.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+
+    @RabbitListener(queues = RabbitConfig.EVENT_QUEUE, autoStartup = "#{!${rules.events.batch.enabled:false}}")
     public void handleEvent(Map<String, Object> event) {
         log.info("Received event: {}", event);
-        String eventType = (String) event.get("eventType");
-
-        // Simple evaluation: Find all active EVENT rules that match the eventType
-        List<Rule> rules = ruleRepository.findAll().stream()
-                .filter(r -> "EVENT".equals(r.getRuleType()))
-                .filter(Rule::getIsActive)
-                .filter(r -> matchesCondition(r, eventType))
-                .toList();
-
-        for (Rule rule : rules) {
-            processRuleAction(rule, event);
+        if (!(event.get("eventType") instanceof String eventType)) {
+            log.warn("Event without a string eventType skipped: {}", event);
+            return;
+        }
+        List<Award> awards = new ArrayList<>(2);
+        evaluate(ruleSnapshotService.current(), eventType, event, awards);
+        for (Award award : awards) {
+            pointsAwardPublisher.publish(award.message());
+            awarded(award);
+            log.info("Points award processed for rule {}: {} points to member {}", award.rule().ruleName(),
+                    award.points(), award.message().get("memberId"));
         }
     }
 
-    private boolean matchesCondition(Rule rule, String eventType) {
-        try {
-            if (rule.getConditions() == null || rule.getConditions().isMissingNode()) {
-                return false;
+    @RabbitListener(queues = RabbitConfig.EVENT_QUEUE, containerFactory = "eventBatchContainerFactory",
+            autoStartup = "${rules.events.batch.enabled:false}")
+    public void handleEvents(List<Message> messages, Channel channel) throws IOException {
+        RuleSnapshot snapshot = ruleSnapshotService.current();
+        int size = messages.size();
+        boolean[] invalid = new boolean[size];
+        boolean[] failed = new boolean[size];
+        List<Award> awards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> event = read(messages.get(i));
+            if (event == null || !(event.get("eventType") instanceof String eventType)) {
+                log.warn("Invalid event {} of batch: {}", i, body(messages.get(i)));
+                invalid[i] = true;
+                continue;
             }
-            String conditionEventType = rule.getConditions().path("eventType").asText();
-            return eventType.equals(conditionEventType);
+            int before = awards.size();
+            try {
+                evaluate(snapshot, eventType, event, awards);
+            } catch (Exception e) {
+                log.error("Event {} of batch failed: {}", i, e.getMessage());
+                awards.subList(before, awards.size()).clear();
+                failed[i] = true;
+            }
+        }
+
+        try {
+            pointsAwardPublisher.publishAll(awards.stream().map(Award::message).toList());
         } catch (Exception e) {
-            log.error("Failed to parse rule conditions for rule {}", rule.getId(), e);
-            return false;
+            // Nothing of the batch is known to be awarded, so all of it is redelivered
+            log.error("Awards of a batch of {} events not confirmed, requeueing it", size, e);
+            channel.basicNack(messages.get(size - 1).getMessageProperties().getDeliveryTag(), true, true);
+            return;
         }
+        awards.forEach(this::awarded);
+        settle(messages, invalid, failed, channel);
+        log.debug("Processed {} events against rule snapshot v{}: {} awards", size, snapshot.getVersion(),
+                awards.size());
     }
 
-    private void processRuleAction(Rule rule, Map<String, Object> event) {
-        try {
-            if (rule.getActions() == null || rule.getActions().isMissingNode()) {
-                log.warn("No actions defined for rule {}", rule.getId());
-                return;
+    private void evaluate(RuleSnapshot snapshot, String eventType, Map<String, Object> event, List<Award> awards) {
+        // Active EVENT rules for this eventType, pre-indexed and priority-ordered in the snapshot
+        List<CompiledEventRule> rules = snapshot.eventRulesFor(eventType);
+        long start = System.nanoTime();
+        List<String> resolvedGroups = null;
+        for (CompiledEventRule rule : rules) {
+            // Only the highest-priority rule of an EXCLUSIVE group that awards points applies
+            String group = rule.exclusiveGroup();
+            if (group != null && resolvedGroups != null && resolvedGroups.contains(group)) {
+                continue;
             }
+            ruleMetrics.matched(String.valueOf(rule.id()), RULE_TYPE);
+            int before = awards.size();
+            processRuleAction(rule, event, awards);
+            if (group != null && awardedSince(awards, before)) {
+                if (resolvedGroups == null) {
+                    resolvedGroups = new ArrayList<>(2);
+                }
+                resolvedGroups.add(group);
+            }
+        }
+        ruleMetrics.eventDispatch(eventType, !rules.isEmpty()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
 
-            com.fasterxml.jackson.databind.JsonNode actionsNode = rule.getActions();
-            List<Map<String, Object>> actionList;
-
-            if (actionsNode.isArray()) {
-                actionList = objectMapper.convertValue(actionsNode,
-                        new com.fasterxml.jackson.core.type.TypeReference<List<Map<String, Object>>>() {
-                        });
-            } else if (actionsNode.isObject()) {
-                Map<String, Object> singleAction = objectMapper.convertValue(actionsNode, Map.class);
-                actionList = List.of(singleAction);
+    // Failures are rejected one by one first; the single multiple-ack then settles the rest
+    private void settle(List<Message> messages, boolean[] invalid, boolean[] failed, Channel channel)
+            throws IOException {
+        long lastSucceeded = -1;
+        for (int i = 0; i < messages.size(); i++) {
+            MessageProperties properties = messages.get(i).getMessageProperties();
+            if (invalid[i] || failed[i]) {
+                // An invalid event cannot succeed later; a failed one is tried once more first
+                boolean parked = (invalid[i] || Boolean.TRUE.equals(properties.isRedelivered()))
+                        && park(messages.get(i));
+                channel.basicNack(properties.getDeliveryTag(), false, !parked);
             } else {
-                log.warn("Unknown actions format for rule {}", rule.getId());
-                return;
+                lastSucceeded = Math.max(lastSucceeded, properties.getDeliveryTag());
             }
+        }
+        if (lastSucceeded >= 0) {
+            channel.basicAck(lastSucceeded, true);
+        }
+    }
 
-            for (Map<String, Object> action : actionList) {
-                String type = (String) action.get("type");
-                if ("AWARD_POINTS".equals(type)) {
-                    executeAwardPoints(action, event, rule);
-                } else if ("TIERED_POINTS".equals(type)) {
-                    executeTieredPoints(action, event, rule);
-                } else {
-                    // Fallback for old hardcoded rules if they haven't been migrated in DB
-                    // This allows backward compatibility if someone still has {"points": 100}
-                    if (action.containsKey("points")) {
-                        executeLegacyAwardPoints(action, event, rule.getRuleName());
-                    } else {
-                        log.warn("Unknown action type: {} in rule {}", type, rule.getId());
-                    }
+    // Copies the message to the parking queue; true once the broker has confirmed it
+    private boolean park(Message message) {
+        try {
+            message.getMessageProperties().setHeader("x-parked-from", RabbitConfig.EVENT_QUEUE);
+            rabbitTemplate.invoke(operations -> {
+                operations.send("", RabbitConfig.EVENT_PARKING_QUEUE, message);
+                if (rabbitTemplate.getConnectionFactory().isSimplePublisherConfirms()) {
+                    operations.waitForConfirmsOrDie(confirmTimeoutMs);
                 }
-            }
+                return null;
+            });
+            log.error("Event parked in {}: {}", RabbitConfig.EVENT_PARKING_QUEUE, body(message));
+            return true;
         } catch (Exception e) {
-            log.error("Failed to parse rule actions for rule {}", rule.getId(), e);
+            log.error("Could not park event, requeueing it: {} ({})", body(message), e.getMessage());
+            return false;
         }
     }
 
-    private void executeTieredPoints(Map<String, Object> action, Map<String, Object> event, Rule rule) {
-        Object amountObj = event.getOrDefault("amount", event.get("value"));
-        if (amountObj == null) {
-            log.warn("Neither 'amount' nor 'value' field found in event for tiered rule {}", rule.getRuleName());
-            return;
-        }
-
-        double amount = ((Number) amountObj).doubleValue();
-        List<Map<String, Object>> ranges = (List<Map<String, Object>>) action.get("ranges");
-        if (ranges == null || ranges.isEmpty()) {
-            return;
+    private Map<String, Object> read(Message message) {
+        try {
+            return objectMapper.readValue(message.getBody(), EVENT);
+        } catch (IOException e) {
+            return null;
         }
+    }
 
-        for (Map<String, Object> range : ranges) {
-            double min = ((Number) range.getOrDefault("min", 0.0)).doubleValue();
-            Number maxNum = (Number) range.get("max");
-            Double max = (maxNum != null) ? maxNum.doubleValue() : null;
-
-            boolean inRange = amount >= min;
-            if (max != null && amount > max) {
-                inRange = false;
-            }
-
-            if (inRange) {
-                int points = ((Number) range.getOrDefault("points", 0)).intValue();
-                double multiplier = ((Number) range.getOrDefault("multiplier", 0.0)).doubleValue();
-                int calculatedPoints = points;
-                if (multiplier > 0) {
-                    calculatedPoints += (int) (amount * multiplier);
-                }
+    private static String body(Message message) {
+        return new String(message.getBody(), StandardCharsets.UTF_8);
+    }
 
-                if (calculatedPoints > 0) {
-                    executeAwardPoints(Map.of(
-                            "points", calculatedPoints,
-                            "reason", range.getOrDefault("reason", rule.getRuleName()),
-                            "memberIdField", action.getOrDefault("memberIdField", "memberId"),
-                            "transactionIdField", action.getOrDefault("transactionIdField", "transactionId")),
-                            event, rule);
-                    log.info("Applied tiered event range: [{} - {}] -> {} points", min, (max != null ? max : "∞"),
-                            calculatedPoints);
-                }
-                break;
+    private static boolean awardedSince(List<Award> awards, int before) {
+        for (int i = before; i < awards.size(); i++) {
+            if (awards.get(i).points() > 0) {
+                return true;
             }
         }
+        return false;
     }
 
-    private void executeAwardPoints(Map<String, Object> action, Map<String, Object> event, Rule rule) {
-        Integer points = (Integer) action.get("points");
-        String reason = (String) action.get("reason");
+    private void awarded(Award award) {
+        ruleMetrics.fired(String.valueOf(award.rule().id()), RULE_TYPE, award.points());
+    }
 
-        // Override with entity fields if present (new advanced rules)
-        if ("POINTS".equals(rule.getRewardType())) {
-            // If the rule has explicit fields, we can use them
-            // But usually points will still be in the action JSON for flexibility
-            // Unless we add a 'points' field to the Rule entity too.
-            // Let's assume for now they are in the JSON for the award amount.
+    private void processRuleAction(CompiledEventRule rule, Map<String, Object> event, List<Award> awards) {
+        if (rule.actions().isEmpty()) {
+            log.warn("No actions defined for rule {}", rule.id());
+            return;
         }
 
-        String memberIdField = (String) action.getOrDefault("memberIdField", "memberId");
-        String transactionIdField = (String) action.getOrDefault("transactionIdField", "transactionId");
-
-        processAward(event, points, reason, memberIdField, transactionIdField, rule.getRuleName());
+        try {
+            for (ActionPlan plan : rule.actions()) {
+                if (plan instanceof AwardPoints award) {
+                    processAward(event, award.points(), award.reason(), award.memberIdField(),
+                            award.transactionIdField(), rule, awards);
+                } else if (plan instanceof TieredPoints tiered) {
+                    executeTieredPoints(tiered, event, rule, awards);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply rule actions for rule {}", rule.id(), e);
+        }
     }
 
-    private void executeLegacyAwardPoints(Map<String, Object> action, Map<String, Object> event, String ruleName) {
-        Integer points = (Integer) action.get("points");
-        String reason = (String) action.get("reason");
-
-        // Default fields for legacy
-        String memberIdField = "memberId";
-        String transactionIdField = "transactionId";
+    private void executeTieredPoints(TieredPoints tiered, Map<String, Object> event, CompiledEventRule rule,
+            List<Award> awards) {
+        Object amountObj = event.getOrDefault("amount", event.get("value"));
+        if (amountObj == null) {
+            log.warn("Neither 'amount' nor 'value' field found in event for tiered rule {}", rule.ruleName());
+            return;
+        }
 
-        // Special case for REFERRAL in legacy if it was still using this method
-        if ("REFERRAL".equals(event.get("eventType"))) {
-            // Legacy referral logic had two distinct awards in one rule
-            // We should ideally split them into two rules or two actions
-            // But for now, we'll let the new generic system handle it if migrated properly
-            log.warn("Legacy REFERRAL event detected. Please migrate to generic AWARD_POINTS actions.");
+        double amount = ((Number) amountObj).doubleValue();
+        int range = tiered.rangeFor(amount);
+        if (range < 0) {
+            return;
         }
 
-        processAward(event, points, reason, memberIdField, transactionIdField, ruleName);
+        int calculatedPoints = tiered.pointsFor(range, amount);
+        if (calculatedPoints > 0) {
+            String reason = tiered.reason(range) != null ? tiered.reason(range) : rule.ruleName();
+            processAward(event, calculatedPoints, reason, tiered.memberIdField(), tiered.transactionIdField(), rule,
+                    awards);
+            log.info("Applied tiered event range: [{} - {}] -> {} points", tiered.min(range), tiered.max(range),
+                    calculatedPoints);
+        }
     }
 
-    private void processAward(Map<String, Object> event, Integer points, String reason, String memberIdField,
-            String transactionIdField, String ruleName) {
+    private void processAward(Map<String, Object> event, int points, String reason, String memberIdField,
+            String transactionIdField, CompiledEventRule rule, List<Award> awards) {
+        String ruleName = rule.ruleName();
         Object memberId = event.get(memberIdField);
         Object transactionId = event.get(transactionIdField);
 
@@ -187,12 +256,13 @@ public class EventListener {
             return;
         }
 
-        rabbitTemplate.convertAndSend("points.earned.exchange", "", Map.of(
+        awards.add(new Award(rule, points, Map.of(
                 "memberId", memberId,
                 "transactionId", transactionId != null ? transactionId : 0L,
-                "pointsEarned", points != null ? points : 0,
-                "reason", reason != null ? reason : ruleName));
+                "pointsEarned", points,
+                "reason", reason != null ? reason : ruleName)));
+    }
 
-        log.info("Points award processed for rule {}: {} points to member {}", ruleName, points, memberId);
+    private record Award(CompiledEventRule rule, int points, Map<String, Object> message) {
     }
 }
@@ -0,0 +1,261 @@
+package com.lms.rule.service;
+
+import com.lms.rule.engine.ActionPlan;
+import com.lms.rule.engine.AwardPoints;
+import com.lms.rule.engine.CompiledRule;
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.engine.TieredPoints;
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.TransactionFact;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a transaction and its activity to a fingerprint that is equal for
+ * two inputs only if every rule of one snapshot and Drools container treats
+ * them the same.
+ *
+ * String fields are kept as they are. Numeric fields are replaced by their
+ * position among all thresholds the rules compare them with (below, equal
+ * to, or between two of them), which is exact for range filters and
+ * comparisons. Thresholds come from the simple rules' amount and volume
+ * filters and tier ranges, and from comparisons with a literal in the DRL.
+ *
+ * A rule set is not cacheable when its DRL
+ * <ul>
+ * <li>depends on when it runs: timing attributes (date-effective,
+ * date-expires, timer, calendars, duration), now, or clock, date and random
+ * classes;</li>
+ * <li>reads memberId, or uses a numeric field any other way than comparing
+ * it with a literal;</li>
+ * <li>has any other comparison than a numeric field with a number, or a
+ * string field of the fingerprint with a string literal or null.</li>
+ * </ul>
+ * A transaction is not cacheable when one of its candidate simple rules
+ * awards points in proportion to the amount.
+ */
+final class FingerprintScheme {
+    private static final String[] COUNT_FIELDS = {"transactionCount", "monthlyTransactionCount",
+            "quarterlyTransactionCount"};
+    private static final String[] SPENT_FIELDS = {"totalSpent", "monthlyTotalSpent", "quarterlyTotalSpent"};
+    private static final String AMOUNT_FIELD = "amount";
+    private static final String MEMBER_ID_FIELD = "memberId";
+    private static final Set<String> EXACT_FIELDS = Set.of("memberTier", "productCategory", "paymentMethod", "role");
+
+    private static final Pattern STRINGS_AND_COMMENTS = Pattern.compile("\"(?:[^\"\\\\]|\\\\.)*\"|'[^']*'|//[^\\n]*|/\\*.*?\\*/",
+            Pattern.DOTALL);
+    // The literal must be the whole right-hand side, so "amount > 100 * 2" does not count as one
+    private static final String OPERAND_END = "(?=\\s*(?:[,)&|;]|$))";
+    private static final Pattern COMPARISON = Pattern.compile(
+            "\\b(\\w+)\\s*(?:>=|<=|==|!=|>|<)\\s*(-?\\d+(?:\\.\\d+)?)" + OPERAND_END);
+    // String literals are reduced to "" before matching
+    private static final Pattern STRING_COMPARISON = Pattern.compile(
+            "\\b(\\w+)\\s*(?:==|!=)\\s*(?:\"\"|null)" + OPERAND_END);
+    private static final Pattern OPERATOR = Pattern.compile(">=|<=|==|!=|>|<");
+    private static final Pattern TIME_DEPENDENT = Pattern.compile("\\b(?:date-effective|date-expires|timer|calendars"
+            + "|duration|now|currentTimeMillis|nanoTime|Clock|Instant|LocalDate|LocalDateTime|LocalTime"
+            + "|ZonedDateTime|OffsetDateTime|Date|Calendar|Random|random|UUID)\\b");
+
+    private final double[] amountBounds;
+    private final double[] countBounds;
+    private final double[] spentBounds;
+    private final Set<CompiledRule> amountProportional;
+
+    private FingerprintScheme(double[] amountBounds, double[] countBounds, double[] spentBounds,
+            Set<CompiledRule> amountProportional) {
+        this.amountBounds = amountBounds;
+        this.countBounds = countBounds;
+        this.spentBounds = spentBounds;
+        this.amountProportional = amountProportional;
+    }
+
+    /**
+     * @return the scheme, or null when the rule set cannot be cached
+     */
+    static FingerprintScheme of(RuleSnapshot snapshot, Collection<String> drlSources) {
+        TreeSet<Double> amounts = new TreeSet<>();
+        TreeSet<Double> counts = new TreeSet<>();
+        TreeSet<Double> spent = new TreeSet<>();
+        Set<CompiledRule> proportional = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (CompiledRule rule : snapshot.getSimpleRules()) {
+            addIfPresent(amounts, rule.minAmount());
+            addIfPresent(amounts, rule.maxAmount());
+            // Periodic rules compare minAmount with the aggregate spend
+            addIfPresent(spent, rule.minAmount());
+            if (rule.minVolume() != null) {
+                counts.add(rule.minVolume().doubleValue());
+            }
+            if (rule.maxVolume() != null) {
+                counts.add(rule.maxVolume().doubleValue());
+            }
+            for (ActionPlan plan : rule.actions()) {
+                if (plan instanceof AwardPoints award && award.multiplier() > 0) {
+                    proportional.add(rule);
+                } else if (plan instanceof TieredPoints tiered) {
+                    for (int range = 0; range < tiered.size(); range++) {
+                        amounts.add(tiered.min(range));
+                        if (tiered.max(range) != Double.POSITIVE_INFINITY) {
+                            amounts.add(tiered.max(range));
+                        }
+                        if (tiered.multiplier(range) > 0) {
+                            proportional.add(rule);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (String drl : drlSources) {
+            String code = STRINGS_AND_COMMENTS.matcher(drl)
+                    .replaceAll(token -> token.group().startsWith("/") ? " " : "\"\"");
+            if (TIME_DEPENDENT.matcher(code).find() || references(code, MEMBER_ID_FIELD) > 0) {
+                return null;
+            }
+            int bucketed = collectThresholds(code, new String[] {AMOUNT_FIELD}, amounts);
+            bucketed = bucketed < 0 ? -1 : add(bucketed, collectThresholds(code, COUNT_FIELDS, counts));
+            bucketed = bucketed < 0 ? -1 : add(bucketed, collectThresholds(code, SPENT_FIELDS, spent));
+            if (bucketed < 0 || count(OPERATOR, code) != bucketed + exactComparisons(code)) {
+                return null;
+            }
+        }
+        return new FingerprintScheme(toArray(amounts), toArray(counts), toArray(spent), proportional);
+    }
+
+    /**
+     * @return the fingerprint, or null when this evaluation must not be cached
+     */
+    Fingerprint fingerprint(RuleSnapshot snapshot, TransactionFact fact, MemberActivityFact activity) {
+        if (fact.getAmount() == null || !hasDefaultOutputs(fact)) {
+            return null;
+        }
+        if (!amountProportional.isEmpty()) {
+            for (CompiledRule candidate : snapshot.candidatesFor(fact)) {
+                if (amountProportional.contains(candidate)) {
+                    return null;
+                }
+            }
+        }
+        int amount = bucket(amountBounds, fact.getAmount().doubleValue());
+        if (activity == null) {
+            return new Fingerprint(fact.getMemberTier(), fact.getProductCategory(), fact.getPaymentMethod(),
+                    fact.getRole(), amount, false, 0, 0, 0, 0, 0, 0);
+        }
+        return new Fingerprint(fact.getMemberTier(), fact.getProductCategory(), fact.getPaymentMethod(),
+                fact.getRole(), amount, true,
+                bucket(countBounds, activity.getMonthlyTransactionCount()),
+                bucket(spentBounds, activity.getMonthlyTotalSpent()),
+                bucket(countBounds, activity.getQuarterlyTransactionCount()),
+                bucket(spentBounds, activity.getQuarterlyTotalSpent()),
+                bucket(countBounds, activity.getTransactionCount()),
+                bucket(spentBounds, activity.getTotalSpent()));
+    }
+
+    record Fingerprint(
+            String memberTier,
+            String productCategory,
+            String paymentMethod,
+            String role,
+            int amount,
+            boolean activity,
+            int monthlyCount,
+            int monthlySpent,
+            int quarterlyCount,
+            int quarterlySpent,
+            int count,
+            int spent) {
+    }
+
+    // Outputs are accumulated onto the fact, so only untouched facts share an outcome
+    private static boolean hasDefaultOutputs(TransactionFact fact) {
+        return fact.getPointMultiplier() == 1.0 && fact.getBonusPoints() == 0
+                && "POINTS".equals(fact.getRewardType()) && fact.getDiscountPercentage() == 0.0;
+    }
+
+    // Even positions lie between thresholds, odd positions on one
+    private static int bucket(double[] bounds, double value) {
+        int index = Arrays.binarySearch(bounds, value);
+        return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+    }
+
+    private static int bucket(double[] bounds, BigDecimal value) {
+        return value != null ? bucket(bounds, value.doubleValue()) : -1;
+    }
+
+    /**
+     * @return the comparisons of the fields with a literal, or -1 when a field
+     *         is used any other way
+     */
+    private static int collectThresholds(String code, String[] fields, Set<Double> thresholds) {
+        int total = 0;
+        for (String field : fields) {
+            int comparisons = 0;
+            Matcher matcher = COMPARISON.matcher(code);
+            while (matcher.find()) {
+                if (matcher.group(1).equals(field)) {
+                    thresholds.add(Double.parseDouble(matcher.group(2)));
+                    comparisons++;
+                }
+            }
+            if (references(code, field) != comparisons) {
+                return -1;
+            }
+            total += comparisons;
+        }
+        return total;
+    }
+
+    private static int add(int bucketed, int more) {
+        return more < 0 ? -1 : bucketed + more;
+    }
+
+    // Comparisons of fields the fingerprint keeps exactly
+    private static int exactComparisons(String code) {
+        int count = 0;
+        Matcher matcher = STRING_COMPARISON.matcher(code);
+        while (matcher.find()) {
+            if (EXACT_FIELDS.contains(matcher.group(1))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int count(Pattern pattern, String code) {
+        Matcher matcher = pattern.matcher(code);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    // Property and getter references, e.g. totalSpent and getTotalSpent()
+    private static int references(String code, String field) {
+        String getter = "get" + Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        Matcher matcher = Pattern.compile("\\b(?:" + field + "|" + getter + ")\\b").matcher(code);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void addIfPresent(Set<Double> bounds, BigDecimal value) {
+        if (value != null) {
+            bounds.add(value.doubleValue());
+        }
+    }
+
+    private static double[] toArray(TreeSet<Double> bounds) {
+        return bounds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
@@ -0,0 +1,143 @@
+package com.lms.rule.service;
+
+import com.lms.rule.model.MemberActivityFact;
+import com.lms.rule.model.TransactionFact;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieContainerSessionsPool;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the Drools phase of an evaluation against one KieContainer in the
+ * configured session mode:
+ * <ul>
+ * <li>STATEFUL - a new KieSession per evaluation (original behaviour)</li>
+ * <li>STATELESS - one shared StatelessKieSession, a fresh working memory per call</li>
+ * <li>POOLED - KieSessions borrowed from a pool and reset on dispose</li>
+ * </ul>
+ * The Drools pool only takes poolSize as its initial size and grows with
+ * demand, so at most poolSize sessions are borrowed from it at a time;
+ * evaluations beyond that use a new, unpooled session instead of waiting.
+ * The pool therefore never holds more than poolSize sessions.
+ * Agenda listeners are registered once per session rather than per call.
+ *
+ * Callers {@link #retain()} the runner for the duration of their work so a
+ * pool replaced by a container swap is only shut down once nobody uses it.
+ */
+public final class KieSessionRunner {
+
+    public enum Mode {
+        STATEFUL,
+        STATELESS,
+        POOLED
+    }
+
+    private final KieContainer container;
+    private final Mode mode;
+    private final List<AgendaEventListener> listeners;
+    private final StatelessKieSession statelessSession;
+    private final KieContainerSessionsPool pool;
+    private final Semaphore poolPermits;
+    // The owner's reference plus one per caller currently using the runner
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    public KieSessionRunner(KieContainer container, Mode mode, int poolSize, AgendaEventListener... listeners) {
+        this.container = container;
+        this.mode = mode;
+        this.listeners = List.of(listeners);
+        if (mode == Mode.STATELESS) {
+            this.statelessSession = container.newStatelessKieSession();
+            this.listeners.forEach(statelessSession::addEventListener);
+        } else {
+            this.statelessSession = null;
+        }
+        this.pool = mode == Mode.POOLED ? container.newKieSessionsPool(poolSize) : null;
+        this.poolPermits = mode == Mode.POOLED ? new Semaphore(poolSize) : null;
+    }
+
+    public KieContainer container() {
+        return container;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public void fire(TransactionFact fact, MemberActivityFact activity) {
+        switch (mode) {
+            case STATELESS -> fireStateless(fact, activity);
+            case POOLED -> firePooled(fact, activity);
+            default -> fireStateful(container.newKieSession(), fact, activity);
+        }
+    }
+
+    private void firePooled(TransactionFact fact, MemberActivityFact activity) {
+        if (!poolPermits.tryAcquire()) {
+            fireStateful(container.newKieSession(), fact, activity);
+            return;
+        }
+        try {
+            fireStateful(pool.newKieSession(), fact, activity);
+        } finally {
+            poolPermits.release();
+        }
+    }
+
+    private void fireStateless(TransactionFact fact, MemberActivityFact activity) {
+        // Inserts every object and fires all rules in one call
+        statelessSession.execute(activity != null ? List.of(fact, activity) : List.of(fact));
+    }
+
+    private void fireStateful(KieSession session, TransactionFact fact, MemberActivityFact activity) {
+        // Pooled sessions come back reset but may keep their listeners
+        for (AgendaEventListener listener : listeners) {
+            if (!session.getAgendaEventListeners().contains(listener)) {
+                session.addEventListener(listener);
+            }
+        }
+        try {
+            session.insert(fact);
+            if (activity != null) {
+                session.insert(activity);
+            }
+            session.fireAllRules();
+        } finally {
+            // Returns the session to the pool in POOLED mode
+            session.dispose();
+        }
+    }
+
+    /**
+     * Takes a reference for the caller; false once the runner has been closed
+     * and released by everyone.
+     */
+    public boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0 && pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Drops the owner's reference once this runner's container has been
+     * replaced; pooled sessions are released after the last caller is done.
+     */
+    public void close() {
+        release();
+    }
+}
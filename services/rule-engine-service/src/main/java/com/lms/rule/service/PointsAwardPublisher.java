@@ -0,0 +1,53 @@
+package com.lms.rule.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes points awards to points.earned.exchange.
+ *
+ * A batch goes out on one channel and is confirmed by the broker once, after
+ * the last message (spring.rabbitmq.publisher-confirm-type: simple). A nack
+ * or a confirm timeout throws, so the batch listener rejects its batch and
+ * the events are redelivered.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PointsAwardPublisher {
+    static final String POINTS_EXCHANGE = "points.earned.exchange";
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rules.events.batch.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+
+    public void publish(Map<String, Object> award) {
+        rabbitTemplate.convertAndSend(POINTS_EXCHANGE, "", award);
+    }
+
+    public void publishAll(List<Map<String, Object>> awards) {
+        if (awards.isEmpty()) {
+            return;
+        }
+        if (!rabbitTemplate.getConnectionFactory().isSimplePublisherConfirms()) {
+            log.debug("Publisher confirms disabled; sending {} awards unconfirmed", awards.size());
+            rabbitTemplate.invoke(operations -> {
+                awards.forEach(award -> operations.convertAndSend(POINTS_EXCHANGE, "", award));
+                return null;
+            });
+            return;
+        }
+        rabbitTemplate.invoke(operations -> {
+            awards.forEach(award -> operations.convertAndSend(POINTS_EXCHANGE, "", award));
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+}
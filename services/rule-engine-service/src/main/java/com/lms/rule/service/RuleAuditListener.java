@@ -0,0 +1,39 @@
+package com.lms.rule.service;
+
+import com.lms.rule.model.TransactionFact;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+
+/**
+ * Queues a RuleAudit for every fired Drools rule on the {@link RuleAuditWriter}
+ * instead of saving it on the evaluating thread. Stateless, so one instance
+ * is shared by all sessions of a {@link KieSessionRunner}; the member id is
+ * read from the TransactionFact in the fired match or working memory.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class RuleAuditListener extends DefaultAgendaEventListener {
+    private final RuleAuditWriter ruleAuditWriter;
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        String ruleName = event.getMatch().getRule().getName();
+        log.info("Rule fired: {}", ruleName);
+        ruleAuditWriter.submit(memberId(event), ruleName, "GENERAL", "Fired");
+    }
+
+    private static Long memberId(AfterMatchFiredEvent event) {
+        for (Object object : event.getMatch().getObjects()) {
+            if (object instanceof TransactionFact fact) {
+                return fact.getMemberId();
+            }
+        }
+        // Rules that do not bind the transaction still audit against its member
+        for (Object object : event.getKieRuntime().getObjects(o -> o instanceof TransactionFact)) {
+            return ((TransactionFact) object).getMemberId();
+        }
+        return null;
+    }
+}
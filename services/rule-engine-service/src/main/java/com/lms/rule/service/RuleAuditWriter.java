@@ -0,0 +1,220 @@
+package com.lms.rule.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.rule.model.RuleAudit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes rule audits off the evaluation path. Fired rules are appended to a
+ * bounded lock-free queue; a background thread drains it and inserts the
+ * records with JDBC batch inserts once a batch is full or the flush interval
+ * has passed.
+ *
+ * When the queue is full the configured overflow policy applies: BLOCK waits
+ * for the writer, DROP discards the audit and counts it, SPILL appends it as
+ * a JSON line to a local file.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RuleAuditWriter {
+    private static final String INSERT_SQL = "INSERT INTO rule_audits "
+            + "(member_id, rule_name, result_type, result_value, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP,
+        SPILL
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rules.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${rules.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${rules.audit.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${rules.audit.overflow-policy:SPILL}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${rules.audit.spill-file:${java.io.tmpdir}/rule-audit-spill.ndjson}")
+    private String spillFile;
+
+    private final ConcurrentLinkedQueue<RuleAudit> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object spillLock = new Object();
+
+    private volatile boolean running;
+    private Thread writer;
+    private Counter written;
+    private Counter dropped;
+    private Counter spilled;
+    private Counter failed;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("loyalty.rules.audit.queue.size", queued, AtomicInteger::get)
+                .description("Rule audits waiting to be written")
+                .register(meterRegistry);
+        written = meterRegistry.counter("loyalty.rules.audit.written.total");
+        dropped = meterRegistry.counter("loyalty.rules.audit.dropped.total");
+        spilled = meterRegistry.counter("loyalty.rules.audit.spilled.total");
+        failed = meterRegistry.counter("loyalty.rules.audit.failed.total");
+
+        running = true;
+        writer = new Thread(this::run, "rule-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues an audit record. Never touches the database on the caller's thread.
+     */
+    public void submit(Long memberId, String ruleName, String resultType, String resultValue) {
+        RuleAudit audit = RuleAudit.builder()
+                .memberId(memberId)
+                .ruleName(ruleName)
+                .resultType(resultType)
+                .resultValue(resultValue)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        if (!reserve()) {
+            switch (overflowPolicy) {
+                case BLOCK -> awaitCapacity();
+                case DROP -> {
+                    dropped.increment();
+                    return;
+                }
+                case SPILL -> {
+                    spill(List.of(audit));
+                    return;
+                }
+            }
+        }
+        queue.offer(audit);
+        if (queued.get() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private boolean reserve() {
+        int size;
+        do {
+            size = queued.get();
+            if (size >= queueCapacity) {
+                return false;
+            }
+        } while (!queued.compareAndSet(size, size + 1));
+        return true;
+    }
+
+    private void awaitCapacity() {
+        while (!reserve()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private void run() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long lastFlush = System.nanoTime();
+        while (running) {
+            long waited = System.nanoTime() - lastFlush;
+            if (queued.get() >= batchSize || (waited >= intervalNanos && queued.get() > 0)) {
+                flush();
+                lastFlush = System.nanoTime();
+            } else if (waited >= intervalNanos) {
+                lastFlush = System.nanoTime();
+            } else {
+                LockSupport.parkNanos(intervalNanos - waited);
+            }
+        }
+    }
+
+    private void flush() {
+        List<RuleAudit> batch = new ArrayList<>(batchSize);
+        RuleAudit audit;
+        while (batch.size() < batchSize && (audit = queue.poll()) != null) {
+            batch.add(audit);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        queued.addAndGet(-batch.size());
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, a) -> {
+                ps.setObject(1, a.getMemberId());
+                ps.setString(2, a.getRuleName());
+                ps.setString(3, a.getResultType());
+                ps.setString(4, a.getResultValue());
+                ps.setTimestamp(5, Timestamp.valueOf(a.getCreatedAt()));
+            });
+            written.increment(batch.size());
+        } catch (Exception e) {
+            log.error("Failed to write {} rule audits", batch.size(), e);
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                failed.increment(batch.size());
+            }
+        }
+    }
+
+    private void spill(List<RuleAudit> audits) {
+        synchronized (spillLock) {
+            try (Writer out = Files.newBufferedWriter(Path.of(spillFile), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (RuleAudit audit : audits) {
+                    out.write(objectMapper.writeValueAsString(audit));
+                    out.write('\n');
+                }
+                spilled.increment(audits.size());
+            } catch (IOException e) {
+                log.error("Failed to spill {} rule audits to {}", audits.size(), spillFile, e);
+                failed.increment(audits.size());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        while (!queue.isEmpty()) {
+            flush();
+        }
+    }
+}
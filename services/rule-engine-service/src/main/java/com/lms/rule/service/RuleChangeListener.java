@@ -0,0 +1,27 @@
+package com.lms.rule.service;
+
+import com.lms.rule.model.RuleChangeNotice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Receives rule changes published by other rule-engine instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RuleChangeListener {
+    private final RulePublisher rulePublisher;
+
+    @RabbitListener(queues = "#{ruleChangeQueue.name}")
+    public void onRuleChange(RuleChangeNotice notice) {
+        if (rulePublisher.instanceId().equals(notice.origin())) {
+            return;
+        }
+        log.debug("Rule set v{} published by {} ({} rule {})", notice.version(), notice.origin(),
+                notice.operation(), notice.ruleId());
+        rulePublisher.applyClusterChange(notice);
+    }
+}
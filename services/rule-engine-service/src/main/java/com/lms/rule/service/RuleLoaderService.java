@@ -1,59 +1,452 @@
 package com.lms.rule.service;
 
+import com.lms.rule.config.RuleModelCompiler;
+import com.lms.rule.exception.RuleCompilationException;
+import com.lms.rule.model.MemberActivityFact;
 import com.lms.rule.model.Rule;
+import com.lms.rule.model.RuleArtifact;
+import com.lms.rule.model.TransactionFact;
+import com.lms.rule.repository.RuleArtifactRepository;
 import com.lms.rule.repository.RuleRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.drools.base.util.Drools;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
-import org.kie.api.builder.KieModule;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
 import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.builder.IncrementalResults;
+import org.kie.internal.builder.InternalKieBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * Owns the KieContainer built from the DRL rules stored in the database.
+ *
+ * Every change is staged: a new container is built off to the side, warmed
+ * with a synthetic fact, and only then swapped in through a volatile field.
+ * In-flight evaluations finish on the container they started with.
+ *
+ * A full build happens on startup and explicit reload. Single-rule changes
+ * are compiled incrementally: only that rule's DRL file is rewritten in the
+ * kept KieFileSystem and rebuilt with {@link InternalKieBuilder#createFileSet},
+ * so the other rules are not recompiled. The staged container still builds
+ * its KieBase (the Rete network) anew from the compiled packages; the live
+ * container is not moved with updateToVersion, which would change the KieBase
+ * under in-flight evaluations.
+ *
+ * With rules.drools.executable-model enabled, every rule set that gets
+ * published is also compiled in the background into an executable-model
+ * kjar and stored in rule_artifacts under a hash of the rule set and the
+ * Drools release. A full build whose rule set has an artifact loads it
+ * instead of compiling DRL, which is what makes restarts and new instances
+ * start fast. Artifacts are labelled with the cluster rule set version
+ * ({@link RuleVersionStore}) and only those older than it are removed, so
+ * instances still catching up with a change keep theirs. The executable
+ * model does not support incremental builds, so the MVEL builder used for
+ * single-rule changes is created on the first such change after a load.
+ *
+ * A rule's priority and EXCLUSIVE group are written into its DRL as salience
+ * and activation-group before compilation ({@link DrlRuleAttributes}).
+ *
+ * A stored rule whose DRL does not compile never blocks the others: a full
+ * build leaves it out, and a failed single-rule change keeps the rule's last
+ * good DRL. Its errors are kept until the rule compiles or is removed
+ * ({@link #compileErrors}).
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RuleLoaderService {
+    private static final String RULES_DIR = "src/main/resources/rules/";
+    private static final Pattern RULE_FILE = Pattern.compile("rule_(\\d+)\\.drl$");
+
     private final RuleRepository ruleRepository;
+    private final RuleArtifactRepository ruleArtifactRepository;
+    private final RuleVersionStore ruleVersionStore;
     private final KieServices kieServices = KieServices.Factory.get();
-    private KieContainer kieContainer;
+    // Own release id so the DB rule module never replaces the classpath one in the KieRepository
+    private final ReleaseId releaseId = kieServices.newReleaseId("com.lms.rule", "database-rules", "1.0.0");
+    // Separate id for executable-model artifacts so compiling one never replaces the MVEL module
+    private final ReleaseId modelReleaseId = kieServices.newReleaseId("com.lms.rule", "database-rules-model", "1.0.0");
+    private final Object buildLock = new Object();
+
+    @Value("${rules.drools.executable-model:true}")
+    private boolean executableModel;
+
+    // Latest rule set waiting for its artifact; older pending ones are skipped
+    private final AtomicReference<Map<Long, String>> pendingArtifact = new AtomicReference<>();
+    private final ExecutorService artifactExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "rule-artifact-compiler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private volatile KieContainer kieContainer;
+    // DRL sources of the live container, swapped together with it
+    private volatile PublishedDrl publishedDrl;
+
+    // Guarded by buildLock
+    private KieFileSystem kieFileSystem;
+    private InternalKieBuilder kieBuilder;
+    private final Map<Long, String> loadedDrl = new HashMap<>();
+    // Written under buildLock; rules whose current DRL is not in the live container
+    private final Map<Long, List<String>> compileErrors = new ConcurrentHashMap<>();
 
     public KieContainer getKieContainer() {
-        if (kieContainer == null) {
-            rebuildContainer();
+        KieContainer container = kieContainer;
+        if (container == null) {
+            // Only before the first publish has completed; waits for it if it is running
+            synchronized (buildLock) {
+                if (kieContainer == null) {
+                    rebuildContainer();
+                }
+                container = kieContainer;
+            }
+        }
+        return container;
+    }
+
+    /**
+     * DRL sources compiled into the given container, or null when it is no
+     * longer (or not yet) the live one.
+     */
+    public Collection<String> drlSources(KieContainer container) {
+        PublishedDrl published = publishedDrl;
+        return published != null && published.container() == container ? published.drl().values() : null;
+    }
+
+    public boolean isReady() {
+        return kieContainer != null;
+    }
+
+    /**
+     * Compile errors of a stored rule whose current DRL is not in the live
+     * container, or of all such rules when ruleId is null.
+     */
+    public List<String> compileErrors(Long ruleId) {
+        if (ruleId != null) {
+            return compileErrors.getOrDefault(ruleId, List.of());
+        }
+        return compileErrors.values().stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Full rebuild from the database, staged, warmed and swapped in.
+     */
+    public void rebuildContainer() {
+        synchronized (buildLock) {
+            KieContainer staged = stageFullBuild();
+            warmUp(staged);
+            kieContainer = staged;
+            publishedDrl = new PublishedDrl(staged, Map.copyOf(loadedDrl));
+        }
+    }
+
+    /**
+     * Applies a created or updated rule. Rules without DRL, or inactive
+     * ones, are removed from the KieBase.
+     */
+    public void ruleSaved(Rule rule) {
+        if (hasActiveDrl(rule)) {
+            publishIncrementally(rule.getId(), DrlRuleAttributes.apply(rule));
+        } else {
+            ruleRemoved(rule.getId());
+        }
+    }
+
+    public void ruleRemoved(Long ruleId) {
+        publishIncrementally(ruleId, null);
+    }
+
+    private void publishIncrementally(Long ruleId, String drl) {
+        synchronized (buildLock) {
+            if (kieContainer == null) {
+                rebuildContainer();
+                return;
+            }
+            if (kieBuilder == null) {
+                // Live container came from an executable-model artifact
+                long start = System.nanoTime();
+                compileErrors.putAll(buildFileSystem(loadedDrl));
+                log.info("Incremental rule builder prepared in {} ms.", (System.nanoTime() - start) / 1_000_000);
+            }
+            KieContainer staged = stageIncremental(ruleId, drl);
+            if (staged != null) {
+                warmUp(staged);
+                kieContainer = staged;
+                publishedDrl = new PublishedDrl(staged, Map.copyOf(loadedDrl));
+                scheduleArtifact(Map.copyOf(loadedDrl));
+            }
         }
-        return kieContainer;
     }
 
-    public synchronized void rebuildContainer() {
+    private KieContainer stageFullBuild() {
+        long start = System.nanoTime();
         log.info("Rebuilding KieContainer from database rules...");
         List<Rule> activeRules = ruleRepository.findAll().stream()
-                .filter(Rule::getIsActive)
-                .filter(r -> r.getDrlContent() != null && !r.getDrlContent().isEmpty())
+                .filter(this::hasActiveDrl)
                 .collect(Collectors.toList());
+        Map<Long, String> drl = new HashMap<>();
+        for (Rule rule : activeRules) {
+            drl.put(rule.getId(), DrlRuleAttributes.apply(rule));
+        }
 
-        KieFileSystem kieFileSystem = kieServices.newKieFileSystem();
+        if (executableModel) {
+            Optional<RuleArtifact> artifact = ruleArtifactRepository.findById(ruleSetHash(drl));
+            if (artifact.isPresent()) {
+                KieContainer staged = RuleModelCompiler.load(kieServices, artifact.get().getContent());
+                this.kieFileSystem = null;
+                this.kieBuilder = null;
+                this.loadedDrl.clear();
+                this.loadedDrl.putAll(drl);
+                this.compileErrors.clear();
+                log.info("KieContainer loaded from executable model with {} rules in {} ms.", activeRules.size(),
+                        (System.nanoTime() - start) / 1_000_000);
+                return staged;
+            }
+        }
 
-        // Add default rules if needed or just load all from DB
-        for (Rule rule : activeRules) {
-            String path = "src/main/resources/rules/" + rule.getRuleName().replaceAll("\\s+", "_") + ".drl";
-            kieFileSystem.write(path, rule.getDrlContent());
+        Map<Long, List<String>> failed = buildFileSystem(drl);
+        this.loadedDrl.clear();
+        this.loadedDrl.putAll(drl);
+        this.compileErrors.clear();
+        this.compileErrors.putAll(failed);
+        KieContainer staged = kieServices.newKieContainer(releaseId);
+        log.info("KieContainer rebuilt successfully with {} rules in {} ms.", drl.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        scheduleArtifact(Map.copyOf(drl));
+        return staged;
+    }
+
+    /**
+     * Full MVEL build kept for incremental compilation. Rules whose DRL does
+     * not compile are removed from drl and built without; an error that no
+     * rule file accounts for still fails the build.
+     *
+     * @return compile errors of the rules left out, by rule id
+     */
+    private Map<Long, List<String>> buildFileSystem(Map<Long, String> drl) {
+        Map<Long, List<String>> failed = new HashMap<>();
+        while (true) {
+            KieFileSystem fileSystem = kieServices.newKieFileSystem();
+            fileSystem.generateAndWritePomXML(releaseId);
+            drl.forEach((id, content) -> fileSystem.write(pathFor(id), content));
+
+            KieBuilder builder = kieServices.newKieBuilder(fileSystem);
+            builder.buildAll();
+
+            List<Message> errors = builder.getResults().getMessages(Message.Level.ERROR);
+            if (errors.isEmpty()) {
+                this.kieFileSystem = fileSystem;
+                this.kieBuilder = (InternalKieBuilder) builder;
+                return failed;
+            }
+
+            Map<Long, List<Message>> byRule = new HashMap<>();
+            for (Message error : errors) {
+                Long ruleId = ruleIdOf(error.getPath());
+                if (ruleId == null || !drl.containsKey(ruleId)) {
+                    log.error("Error building Drools rules: {}", builder.getResults().getMessages());
+                    throw new RuleCompilationException("Build Errors occurred during rule compilation", errors);
+                }
+                byRule.computeIfAbsent(ruleId, k -> new ArrayList<>()).add(error);
+            }
+            byRule.forEach((ruleId, messages) -> {
+                log.error("Rule {} left out of the KieBase, its DRL does not compile: {}", ruleId, messages);
+                drl.remove(ruleId);
+                failed.put(ruleId, describe(ruleId, messages));
+            });
         }
+    }
+
+    private void scheduleArtifact(Map<Long, String> drl) {
+        if (!executableModel) {
+            return;
+        }
+        pendingArtifact.set(drl);
+        artifactExecutor.execute(() -> {
+            Map<Long, String> latest = pendingArtifact.getAndSet(null);
+            if (latest != null) {
+                storeArtifact(latest);
+            }
+        });
+    }
+
+    private void storeArtifact(Map<Long, String> drl) {
+        String hash = ruleSetHash(drl);
+        try {
+            long version = ruleVersionStore.current();
+            if (ruleArtifactRepository.existsById(hash)) {
+                // Same rules as an earlier version, e.g. after a revert
+                ruleArtifactRepository.markVersion(hash, version);
+                ruleArtifactRepository.deleteOlderThan(version);
+                return;
+            }
+            long start = System.nanoTime();
+            Map<String, String> files = new HashMap<>();
+            drl.forEach((id, content) -> files.put(pathFor(id), content));
+            byte[] kjar = RuleModelCompiler.compile(kieServices, modelReleaseId, files);
+            ruleArtifactRepository.save(RuleArtifact.builder()
+                    .ruleSetHash(hash)
+                    .content(kjar)
+                    .ruleCount(drl.size())
+                    .ruleSetVersion(version)
+                    .droolsVersion(Drools.getFullVersion())
+                    .build());
+            int removed = ruleArtifactRepository.deleteOlderThan(version);
+            log.debug("Removed {} executable models older than rule set version {}", removed, version);
+            log.info("Executable model for {} rules stored ({} bytes) in {} ms.", drl.size(), kjar.length,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            // Only costs the next startup a DRL compile
+            log.warn("Could not store executable model for rule set {}", hash, e);
+        }
+    }
+
+    // Returns null when the rule's DRL is unchanged
+    private KieContainer stageIncremental(Long ruleId, String drl) {
+        String previous = loadedDrl.get(ruleId);
+        if (drl == null ? previous == null : drl.equals(previous)) {
+            compileErrors.remove(ruleId);
+            return null;
+        }
+
+        long start = System.nanoTime();
+        String path = pathFor(ruleId);
+        writeOrDelete(path, drl);
+        IncrementalResults results = kieBuilder.createFileSet(path).build();
+        List<Message> errors = results.getAddedMessages().stream()
+                .filter(m -> m.getLevel() == Message.Level.ERROR)
+                .toList();
+        if (!errors.isEmpty()) {
+            // Put the last good DRL back so the builder matches the live container
+            writeOrDelete(path, previous);
+            kieBuilder.createFileSet(path).build();
+            log.error("Error compiling rule {}: {}", ruleId, errors);
+            compileErrors.put(ruleId, describe(ruleId, errors));
+            throw new RuleCompilationException(ruleId, compileErrors.get(ruleId));
+        }
+        compileErrors.remove(ruleId);
+
+        if (drl == null) {
+            loadedDrl.remove(ruleId);
+        } else {
+            loadedDrl.put(ruleId, drl);
+        }
+        // New KieBase from the updated module; only the DRL compilation above was incremental
+        KieContainer staged = kieServices.newKieContainer(releaseId);
+        log.info("Rule {} {} incrementally, KieBase staged in {} ms.", ruleId,
+                drl == null ? "removed" : "compiled", (System.nanoTime() - start) / 1_000_000);
+        return staged;
+    }
+
+    /**
+     * Builds the KieBase and JIT-warms the session path with a synthetic fact
+     * so the first real evaluation after a swap does not pay for it.
+     */
+    private void warmUp(KieContainer container) {
+        TransactionFact fact = new TransactionFact();
+        fact.setMemberId(-1L);
+        fact.setAmount(BigDecimal.valueOf(100));
+        fact.setPaymentMethod("CARD");
+        fact.setProductCategory("WARMUP");
+        fact.setMemberTier("BRONZE");
+        fact.setRole("CUSTOMER");
+        MemberActivityFact activity = new MemberActivityFact();
+        activity.setMemberId(-1L);
+        activity.setMonthlyTotalSpent(BigDecimal.ZERO);
+        activity.setQuarterlyTotalSpent(BigDecimal.ZERO);
+        activity.setTotalSpent(BigDecimal.ZERO);
+
+        KieSession session = container.newKieSession();
+        try {
+            session.insert(fact);
+            session.insert(activity);
+            session.fireAllRules();
+        } finally {
+            session.dispose();
+        }
+    }
+
+    private void writeOrDelete(String path, String drl) {
+        if (drl == null) {
+            kieFileSystem.delete(path);
+        } else {
+            kieFileSystem.write(path, drl);
+        }
+    }
+
+    private boolean hasActiveDrl(Rule rule) {
+        return Boolean.TRUE.equals(rule.getIsActive())
+                && rule.getDrlContent() != null && !rule.getDrlContent().isEmpty();
+    }
+
+    // Identifies a rule set independent of map order; a kjar compiled by another Drools release never matches
+    private static String ruleSetHash(Map<Long, String> drl) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Drools.getFullVersion().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            for (Map.Entry<Long, String> rule : new TreeMap<>(drl).entrySet()) {
+                digest.update(rule.getKey().toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(rule.getValue().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        artifactExecutor.shutdownNow();
+    }
 
-        KieBuilder kieBuilder = kieServices.newKieBuilder(kieFileSystem);
-        kieBuilder.buildAll();
+    // Keyed by id so renames and duplicate names cannot overwrite another rule's file
+    private static String pathFor(Long ruleId) {
+        return RULES_DIR + "rule_" + ruleId + ".drl";
+    }
 
-        if (kieBuilder.getResults().hasMessages(org.kie.api.builder.Message.Level.ERROR)) {
-            log.error("Error building Drools rules: {}", kieBuilder.getResults().getMessages());
-            throw new RuntimeException("Build Errors occurred during rule compilation");
+    private static Long ruleIdOf(String path) {
+        if (path == null) {
+            return null;
         }
+        Matcher matcher = RULE_FILE.matcher(path);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private static List<String> describe(Long ruleId, List<Message> errors) {
+        return errors.stream().map(error -> "Rule " + ruleId + ": " + error).toList();
+    }
 
-        KieModule kieModule = kieBuilder.getKieModule();
-        this.kieContainer = kieServices.newKieContainer(kieModule.getReleaseId());
-        log.info("KieContainer rebuilt successfully with {} rules.", activeRules.size());
+    private record PublishedDrl(KieContainer container, Map<Long, String> drl) {
     }
 }
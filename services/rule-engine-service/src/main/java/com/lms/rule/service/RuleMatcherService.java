@@ -1,215 +1,181 @@
 package com.lms.rule.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.lms.rule.model.Rule;
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.engine.SimpleRuleEvaluator;
+import com.lms.rule.model.RuleEvaluationRequest;
 import com.lms.rule.model.TransactionFact;
 import com.lms.rule.model.MemberActivityFact;
-import java.util.List;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieContainer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RuleMatcherService {
     private final RuleLoaderService ruleLoaderService;
-    private final com.lms.rule.repository.RuleAuditRepository ruleAuditRepository;
+    private final RuleAuditWriter ruleAuditWriter;
     private final io.micrometer.core.instrument.MeterRegistry meterRegistry;
-    private final com.lms.rule.repository.RuleRepository ruleRepository;
+    private final RuleSnapshotService ruleSnapshotService;
+    private final RuleMetrics ruleMetrics;
+    private final EvaluationCache evaluationCache;
 
-    public TransactionFact evaluateRules(TransactionFact fact, MemberActivityFact activity) {
-        meterRegistry.counter("loyalty.rules.evaluated.total").increment();
-        log.info("Evaluating rules for fact: {} and activity: {}", fact, activity);
+    @Value("${rules.drools.session-mode:STATEFUL}")
+    private KieSessionRunner.Mode sessionMode;
 
-        // 1. Evaluate Field-Based Rules (Simple Rules)
-        List<Rule> simpleRules = ruleRepository.findAll().stream()
-                .filter(Rule::getIsActive)
-                .filter(r -> "SIMPLE".equals(r.getRuleType()) || "TRANSACTION".equals(r.getRuleType()))
-                .toList();
+    @Value("${rules.drools.session-pool-size:16}")
+    private int sessionPoolSize;
 
-        for (Rule rule : simpleRules) {
-            applySimpleRule(rule, fact, activity);
-        }
+    @Value("${rules.batch.chunk-size:256}")
+    private int batchChunkSize;
 
-        // 2. Evaluate Drools Rules
-        KieSession kieSession = ruleLoaderService.getKieContainer().newKieSession();
-
-        // Add audit listener
-        kieSession.addEventListener(new org.kie.api.event.rule.DefaultAgendaEventListener() {
-            @Override
-            public void afterMatchFired(org.kie.api.event.rule.AfterMatchFiredEvent event) {
-                String ruleName = event.getMatch().getRule().getName();
-                log.info("Rule fired: {}", ruleName);
-                ruleAuditRepository.save(com.lms.rule.model.RuleAudit.builder()
-                        .memberId(fact.getMemberId())
-                        .ruleName(ruleName)
-                        .resultType("GENERAL")
-                        .resultValue("Fired")
-                        .build());
-            }
-        });
+    private volatile KieSessionRunner runner;
+
+    // Shared by all batch requests so concurrent batches cannot oversubscribe the cores
+    private final ExecutorService batchExecutor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new java.util.concurrent.ThreadFactory() {
+                private final AtomicInteger sequence = new AtomicInteger();
 
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "rule-batch-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    public TransactionFact evaluateRules(TransactionFact fact, MemberActivityFact activity) {
+        meterRegistry.counter("loyalty.rules.evaluated.total").increment();
+        log.info("Evaluating rules for fact: {} and activity: {}", fact, activity);
+
+        KieSessionRunner current = acquireRunner();
         try {
-            kieSession.insert(fact);
-            if (activity != null)
-                kieSession.insert(activity);
-            kieSession.fireAllRules();
+            evaluate(ruleSnapshotService.current(), current, fact, activity);
         } finally {
-            kieSession.dispose();
+            current.release();
         }
         log.info("Rules evaluation completed. Final multipliers: {}, Bonus points: {}",
                 fact.getPointMultiplier(), fact.getBonusPoints());
         return fact;
     }
 
-    private void applySimpleRule(Rule rule, TransactionFact fact, MemberActivityFact activity) {
-        // Skip if target tier doesn't match
-        if (rule.getTargetTier() != null && !rule.getTargetTier().isEmpty() &&
-                !rule.getTargetTier().equalsIgnoreCase(fact.getMemberTier())) {
-            log.debug("Skipping rule {} as member tier {} does not match target tier {}",
-                    rule.getRuleName(), fact.getMemberTier(), rule.getTargetTier());
-            return;
-        }
-
-        // Expiry check
-        if (rule.getValidUntil() != null && java.time.LocalDateTime.now().isAfter(rule.getValidUntil())) {
-            return;
+    /**
+     * Evaluates a batch against one rule snapshot and one Drools container,
+     * whatever is published meanwhile. Requests are split into chunks that
+     * run in parallel; the returned futures are in request order so callers
+     * can stream each chunk as soon as it and its predecessors are done.
+     * A request that fails to evaluate yields null in its slot.
+     */
+    public List<CompletableFuture<List<TransactionFact>>> evaluateBatch(List<RuleEvaluationRequest> requests) {
+        meterRegistry.counter("loyalty.rules.evaluated.total").increment(requests.size());
+        RuleSnapshot snapshot = ruleSnapshotService.current();
+        KieSessionRunner current = acquireRunner();
+
+        List<CompletableFuture<List<TransactionFact>>> chunks = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += batchChunkSize) {
+            List<RuleEvaluationRequest> chunk = requests.subList(from, Math.min(from + batchChunkSize, requests.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> evaluateChunk(snapshot, current, chunk), batchExecutor));
         }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> current.release());
+        log.info("Evaluating batch of {} requests in {} chunks against rule snapshot v{}",
+                requests.size(), chunks.size(), snapshot.getVersion());
+        return chunks;
+    }
 
-        // Product filter (Multi-product support)
-        if (rule.getTargetProductCodes() != null && !rule.getTargetProductCodes().isEmpty()) {
-            if (!rule.getTargetProductCodes().contains(fact.getProductCategory())) {
-                return;
+    private List<TransactionFact> evaluateChunk(RuleSnapshot snapshot, KieSessionRunner current,
+            List<RuleEvaluationRequest> chunk) {
+        List<TransactionFact> results = new ArrayList<>(chunk.size());
+        for (RuleEvaluationRequest request : chunk) {
+            TransactionFact fact = request != null ? request.getTransaction() : null;
+            if (fact == null) {
+                results.add(null);
+                continue;
             }
-        } else if (rule.getTargetProductCode() != null && !rule.getTargetProductCode().isEmpty()) {
-            // Fallback to legacy field
-            if (!rule.getTargetProductCode().equals(fact.getProductCategory())) {
-                return;
+            try {
+                evaluate(snapshot, current, fact, request.getActivity());
+                results.add(fact);
+            } catch (RuntimeException e) {
+                log.error("Batch evaluation failed for member {}", fact.getMemberId(), e);
+                results.add(null);
             }
         }
+        return results;
+    }
 
-        // Amount range filter
-        if (rule.getMinAmount() != null && fact.getAmount().compareTo(rule.getMinAmount()) < 0) {
-            return;
-        }
-        if (rule.getMaxAmount() != null && fact.getAmount().compareTo(rule.getMaxAmount()) > 0) {
-            return;
-        }
+    private void evaluate(RuleSnapshot snapshot, KieSessionRunner current, TransactionFact fact,
+            MemberActivityFact activity) {
+        evaluationCache.evaluate(snapshot, current.container(), fact, activity,
+                () -> evaluateUncached(snapshot, current, fact, activity));
+    }
 
-        // Volume/Amount aggregates
-        if (activity != null && rule.getEvaluationType() != null) {
-            long currentVolume = 0;
-            java.math.BigDecimal currentTotalSpent = java.math.BigDecimal.ZERO;
-
-            if ("MONTHLY".equals(rule.getEvaluationType())) {
-                currentVolume = activity.getMonthlyTransactionCount();
-                currentTotalSpent = activity.getMonthlyTotalSpent();
-            } else if ("QUARTERLY".equals(rule.getEvaluationType())) {
-                currentVolume = activity.getQuarterlyTransactionCount();
-                currentTotalSpent = activity.getQuarterlyTotalSpent();
-            } else {
-                // For TRANSACTION evaluation type, we might still want to check
-                // lifetime/default aggregates
-                currentVolume = activity.getTransactionCount();
-                currentTotalSpent = activity.getTotalSpent();
-            }
+    private void evaluateUncached(RuleSnapshot snapshot, KieSessionRunner current, TransactionFact fact,
+            MemberActivityFact activity) {
+        // 1. Evaluate Field-Based Rules (Simple Rules) from the in-memory snapshot
+        long start = System.nanoTime();
+        SimpleRuleEvaluator.evaluate(snapshot, fact, activity, ruleMetrics);
+        long simpleDone = System.nanoTime();
+        ruleMetrics.simplePhase().record(simpleDone - start, TimeUnit.NANOSECONDS);
 
-            if (rule.getMinVolume() != null && currentVolume < rule.getMinVolume()) {
-                return;
-            }
-            if (rule.getMaxVolume() != null && currentVolume > rule.getMaxVolume()) {
-                return;
-            }
-            if (rule.getMinAmount() != null && currentTotalSpent != null
-                    && currentTotalSpent.compareTo(rule.getMinAmount()) < 0) {
-                // Note: minAmount can be used for both per-transaction and aggregate
-                // If evaluationType is TRANSACTION, it checks per-transaction amount (already
-                // done above)
-                // If evaluationType is MONTHLY, it checks aggregate amount.
-                // Re-check logic: if it's periodic, currentTotalSpent is the aggregate.
-                if (!"TRANSACTION".equals(rule.getEvaluationType())) {
-                    return;
-                }
+        // 2. Evaluate Drools Rules
+        current.fire(fact, activity);
+        ruleMetrics.droolsPhase().record(System.nanoTime() - simpleDone, TimeUnit.NANOSECONDS);
+    }
+
+    private KieSessionRunner acquireRunner() {
+        while (true) {
+            KieSessionRunner current = runner();
+            if (current.retain()) {
+                return current;
             }
         }
+    }
 
-        // Apply reward
-        log.info("Applying simple rule: {}", rule.getRuleName());
-        try {
-            log.info("Rule actions for {}: {}", rule.getRuleName(), rule.getActions());
-            if (rule.getActions() == null || rule.getActions().isMissingNode() || rule.getActions().isEmpty())
-                return;
-
-            JsonNode actionsNode = rule.getActions();
-            if (!actionsNode.isArray()) {
-                log.warn("Actions for rule {} is not an array: {}", rule.getRuleName(), actionsNode);
-                return;
+    // Follows container swaps of the RuleLoaderService
+    private KieSessionRunner runner() {
+        KieContainer container = ruleLoaderService.getKieContainer();
+        KieSessionRunner current = runner;
+        if (current != null && current.container() == container) {
+            return current;
+        }
+        synchronized (this) {
+            // Re-read so a caller that saw a container before a swap cannot bring it back
+            container = ruleLoaderService.getKieContainer();
+            current = runner;
+            if (current == null || current.container() != container) {
+                KieSessionRunner created = new KieSessionRunner(container, sessionMode, sessionPoolSize,
+                        new RuleAuditListener(ruleAuditWriter), new DroolsMetricsListener(ruleMetrics),
+                        evaluationCache.firingRecorder());
+                log.info("Using {} Drools sessions for the current rule container", sessionMode);
+                runner = created;
+                if (current != null) {
+                    // Pooled sessions are released once in-flight evaluations let go of it
+                    current.close();
+                }
+                current = created;
             }
+            return current;
+        }
+    }
 
-            for (JsonNode action : actionsNode) {
-                String type = action.path("type").asText();
-
-                if ("TIERED_POINTS".equals(type)) {
-                    JsonNode ranges = action.path("ranges");
-                    if (ranges.isArray()) {
-                        for (JsonNode range : ranges) {
-                            java.math.BigDecimal min = new java.math.BigDecimal(range.path("min").asDouble(0.0));
-                            JsonNode maxNode = range.get("max");
-                            java.math.BigDecimal max = (maxNode != null && !maxNode.isNull()
-                                    && !maxNode.asText().isEmpty())
-                                            ? new java.math.BigDecimal(maxNode.asDouble())
-                                            : null;
-
-                            log.debug("Checking range [{} - {}] for amount {}", min, max, fact.getAmount());
-                            boolean inRange = fact.getAmount().compareTo(min) >= 0;
-                            if (max != null && fact.getAmount().compareTo(max) > 0) {
-                                inRange = false;
-                            }
-
-                            if (inRange) {
-                                log.debug("Amount {} is in range [{} - {}]", fact.getAmount(), min, max);
-                                int points = range.path("points").asInt(0);
-                                double multiplier = range.path("multiplier").asDouble(0.0);
-                                int calculatedPoints = points;
-                                if (multiplier > 0) {
-                                    calculatedPoints += (int) (fact.getAmount().doubleValue() * multiplier);
-                                }
-                                if (calculatedPoints > 0) {
-                                    fact.setBonusPoints(fact.getBonusPoints() + calculatedPoints);
-                                    log.info(
-                                            "Applied tiered points range for rule {}: [{} - {}] -> {} points (Base: {}, Multiplier: {})",
-                                            rule.getRuleName(), min, (max != null ? max : "∞"), calculatedPoints,
-                                            points, multiplier);
-                                }
-                                // Stop after first matching range
-                                break;
-                            }
-                        }
-                    }
-                } else if ("POINTS".equals(rule.getRewardType()) || "AWARD_POINTS".equals(type)) {
-                    int points = action.path("points").asInt(0);
-                    double multiplier = action.path("pointsMultiplier")
-                            .asDouble(action.path("multiplier").asDouble(0.0));
-
-                    if (multiplier > 0) {
-                        points += (int) (fact.getAmount().doubleValue() * multiplier);
-                        log.info("Calculated proportional points: {} (Amount: {} * Multiplier: {})",
-                                points, fact.getAmount(), multiplier);
-                    }
-
-                    if (points > 0) {
-                        fact.setBonusPoints(fact.getBonusPoints() + points);
-                    }
-                } else if ("DISCOUNT".equals(rule.getRewardType()) || "AWARD_DISCOUNT".equals(type)) {
-                    fact.setRewardType("DISCOUNT");
-                    double discount = action.path("discountPercentage").asDouble(10.0);
-                    fact.setDiscountPercentage(discount);
-                }
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+        synchronized (this) {
+            if (runner != null) {
+                runner.close();
             }
-        } catch (Exception e) {
-            log.error("Failed to apply reward for rule {}", rule.getId(), e);
         }
     }
 }
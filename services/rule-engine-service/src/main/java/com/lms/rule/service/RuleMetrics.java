@@ -0,0 +1,125 @@
+package com.lms.rule.service;
+
+import com.lms.rule.engine.CompiledRule;
+import com.lms.rule.engine.RuleOutcomeListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluation timers and per-rule counters.
+ *
+ * Phase and EVENT dispatch timers publish percentile histograms. Per-rule
+ * counters (matched, fired, points) are tagged with rule.id and rule.type;
+ * once rules.metrics.max-tagged-rules distinct rules have been seen, further
+ * rules are counted under rule.id=other so a large promotion catalogue
+ * cannot blow up the number of series.
+ */
+@Service
+public class RuleMetrics implements RuleOutcomeListener {
+    static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rules.metrics.max-tagged-rules:500}")
+    private int maxTaggedRules;
+
+    private final Map<String, RuleCounters> ruleCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> eventTimers = new ConcurrentHashMap<>();
+    private final Timer simplePhase;
+    private final Timer droolsPhase;
+
+    public RuleMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.simplePhase = phaseTimer("simple");
+        this.droolsPhase = phaseTimer("drools");
+    }
+
+    public Timer simplePhase() {
+        return simplePhase;
+    }
+
+    public Timer droolsPhase() {
+        return droolsPhase;
+    }
+
+    /**
+     * Dispatch timer for an EVENT type. Types without any configured rule
+     * share one series, so arbitrary event types cannot add series.
+     */
+    public Timer eventDispatch(String eventType, boolean hasRules) {
+        String tag = hasRules && eventType != null ? eventType : "none";
+        return eventTimers.computeIfAbsent(tag, t -> Timer.builder("loyalty.rules.event.dispatch.duration")
+                .description("Time to dispatch one event through its EVENT rules")
+                .tag("event.type", t)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    @Override
+    public void matched(CompiledRule rule) {
+        matched(String.valueOf(rule.id()), rule.ruleType());
+    }
+
+    @Override
+    public void applied(CompiledRule rule, int points) {
+        fired(String.valueOf(rule.id()), rule.ruleType(), points);
+    }
+
+    public void matched(String ruleId, String ruleType) {
+        counters(ruleId, ruleType).matched.increment();
+    }
+
+    public void fired(String ruleId, String ruleType, int points) {
+        RuleCounters counters = counters(ruleId, ruleType);
+        counters.fired.increment();
+        if (points > 0) {
+            counters.points.increment(points);
+        }
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("loyalty.rules.phase.duration")
+                .description("Time spent in one rule evaluation phase")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private RuleCounters counters(String ruleId, String ruleType) {
+        String type = ruleType != null ? ruleType : "UNKNOWN";
+        String key = type + ':' + ruleId;
+        RuleCounters counters = ruleCounters.get(key);
+        if (counters != null) {
+            return counters;
+        }
+        if (ruleCounters.size() >= maxTaggedRules) {
+            return ruleCounters.computeIfAbsent(type + ':' + OTHER, k -> new RuleCounters(OTHER, type));
+        }
+        return ruleCounters.computeIfAbsent(key, k -> new RuleCounters(ruleId, type));
+    }
+
+    private final class RuleCounters {
+        final Counter matched;
+        final Counter fired;
+        final Counter points;
+
+        RuleCounters(String ruleId, String ruleType) {
+            matched = counter("loyalty.rules.rule.matched", ruleId, ruleType);
+            fired = counter("loyalty.rules.rule.fired", ruleId, ruleType);
+            points = counter("loyalty.rules.rule.points", ruleId, ruleType);
+        }
+
+        private Counter counter(String name, String ruleId, String ruleType) {
+            return Counter.builder(name)
+                    .tag("rule.id", ruleId)
+                    .tag("rule.type", ruleType)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.lms.rule.service;
+
+import com.lms.rule.config.RabbitConfig;
+import com.lms.rule.exception.RuleCompilationException;
+import com.lms.rule.model.PublishTicket;
+import com.lms.rule.model.Rule;
+import com.lms.rule.model.RuleChangeNotice;
+import com.lms.rule.repository.RuleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes rule changes on a dedicated background thread so admin requests
+ * and evaluations never wait on Drools compilation. Each submission returns
+ * a {@link PublishTicket} that can be polled for status and compile errors.
+ *
+ * Every instance serves a cluster rule set version. A change published here
+ * claims the next version in rule_set_version and is announced on the rule
+ * change fanout; other instances apply the announced rule, or reload
+ * everything if they missed a version. A periodic check against the stored
+ * version catches up on announcements lost while the broker was unreachable.
+ *
+ * By the time a change is submitted its rule is already stored. The simple
+ * rule snapshot is therefore refreshed and the change announced even when the
+ * rule's DRL does not compile; the ticket then fails with that rule's
+ * compile errors.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RulePublisher {
+    private static final int MAX_TICKETS = 256;
+
+    private final RuleLoaderService ruleLoaderService;
+    private final RuleSnapshotService ruleSnapshotService;
+    private final RuleRepository ruleRepository;
+    private final RuleVersionStore ruleVersionStore;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rules.cluster.instance-id:${random.uuid}}")
+    private String instanceId;
+
+    @Value("${rules.cluster.poll-interval-ms:30000}")
+    private long pollIntervalMs;
+
+    // Publications run here one at a time, in submission order
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rule-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, PublishTicket> tickets = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PublishTicket> eldest) {
+                    return size() > MAX_TICKETS;
+                }
+            });
+
+    // Cluster version of the rules currently served; -1 until the first load
+    private final AtomicLong servedVersion = new AtomicLong(-1);
+    private final AtomicBoolean catchUpQueued = new AtomicBoolean();
+    private volatile Instant behindSince;
+
+    @PostConstruct
+    void startPolling() {
+        executor.scheduleWithFixedDelay(this::checkClusterVersion, pollIntervalMs, pollIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Compile the database rules before traffic arrives instead of on the first evaluation
+    @org.springframework.context.event.EventListener(ApplicationReadyEvent.class)
+    public void publishOnStartup() {
+        catchUp();
+    }
+
+    public PublishTicket ruleSaved(Rule rule) {
+        Rule published = detached(rule);
+        return submit("SAVE", rule.getId(), () -> ruleLoaderService.ruleSaved(published), true);
+    }
+
+    public PublishTicket ruleRemoved(Long ruleId) {
+        return submit("DELETE", ruleId, () -> ruleLoaderService.ruleRemoved(ruleId), true);
+    }
+
+    public PublishTicket reloadAll() {
+        return submit("RELOAD", null, ruleLoaderService::rebuildContainer, true);
+    }
+
+    public Optional<PublishTicket> ticket(String id) {
+        return Optional.ofNullable(tickets.get(id));
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    public long servedVersion() {
+        return servedVersion.get();
+    }
+
+    // When this instance first saw a newer cluster version than it serves; null when in sync
+    public Instant behindSince() {
+        return behindSince;
+    }
+
+    /**
+     * Applies a change announced by another instance. The announced rule is
+     * published incrementally when it is the next version; after a gap the
+     * whole rule set is reloaded.
+     */
+    public void applyClusterChange(RuleChangeNotice notice) {
+        if (instanceId.equals(notice.origin()) || notice.version() <= servedVersion.get()) {
+            return;
+        }
+        markBehind();
+        executor.execute(() -> {
+            long served = servedVersion.get();
+            if (notice.version() <= served) {
+                return;
+            }
+            if (notice.version() != served + 1 || notice.ruleId() == null) {
+                log.info("Rule set v{} announced by {} while serving v{}; reloading all rules",
+                        notice.version(), notice.origin(), served);
+                publish(newTicket("SYNC", null), this::reloadAtStoredVersion, false);
+                return;
+            }
+            Long ruleId = notice.ruleId();
+            publish(newTicket("SYNC", ruleId), () -> {
+                Optional<Rule> rule = ruleRepository.findById(ruleId);
+                try {
+                    if (rule.isPresent()) {
+                        ruleLoaderService.ruleSaved(detached(rule.get()));
+                    } else {
+                        ruleLoaderService.ruleRemoved(ruleId);
+                    }
+                } catch (RuleCompilationException e) {
+                    // The version is applied all the same; a reload would leave the rule out too
+                    servedVersion.set(notice.version());
+                    throw e;
+                }
+                servedVersion.set(notice.version());
+            }, false);
+        });
+    }
+
+    private PublishTicket submit(String operation, Long ruleId, Runnable compile, boolean announce) {
+        PublishTicket ticket = newTicket(operation, ruleId);
+        executor.execute(() -> publish(ticket, compile, announce));
+        return ticket;
+    }
+
+    private PublishTicket newTicket(String operation, Long ruleId) {
+        PublishTicket ticket = new PublishTicket(UUID.randomUUID().toString(), operation, ruleId,
+                PublishTicket.Status.QUEUED, List.of(), null, Instant.now(), null);
+        tickets.put(ticket.id(), ticket);
+        return ticket;
+    }
+
+    private void publish(PublishTicket ticket, Runnable compile, boolean announce) {
+        tickets.put(ticket.id(), ticket.withStatus(PublishTicket.Status.COMPILING));
+        List<String> errors;
+        try {
+            compile.run();
+            // A full build leaves rules that do not compile out rather than failing
+            errors = ruleLoaderService.compileErrors(ticket.ruleId());
+        } catch (RuleCompilationException e) {
+            errors = e.getErrors();
+        } catch (Exception e) {
+            log.error("Drools build of rule publication {} failed", ticket.id(), e);
+            errors = List.of(String.valueOf(e.getMessage()));
+        }
+
+        try {
+            long version = ruleSnapshotService.refresh().getVersion();
+            PublishTicket published = ticket.published(version);
+            tickets.put(ticket.id(), errors.isEmpty() ? published : published.failed(errors));
+            if (announce) {
+                announce(ticket);
+            }
+            if (behindSince != null && servedVersion.get() >= ruleVersionStore.current()) {
+                behindSince = null;
+            }
+        } catch (Exception e) {
+            log.error("Rule publication {} failed", ticket.id(), e);
+            List<String> all = new ArrayList<>(errors);
+            all.add(String.valueOf(e.getMessage()));
+            tickets.put(ticket.id(), ticket.failed(all));
+        }
+    }
+
+    private void announce(PublishTicket ticket) {
+        long version = ruleVersionStore.next(instanceId);
+        if (!servedVersion.compareAndSet(version - 1, version)) {
+            // Another instance published in between and we have not applied it yet
+            catchUp();
+        }
+        try {
+            rabbitTemplate.convertAndSend(RabbitConfig.RULE_CHANGE_EXCHANGE, "",
+                    new RuleChangeNotice(version, instanceId, ticket.operation(), ticket.ruleId(), Instant.now()));
+        } catch (Exception e) {
+            // Other instances pick the change up on their next version check
+            log.warn("Could not announce rule set v{}: {}", version, e.getMessage());
+        }
+    }
+
+    // The version is read before the rules, so a change committed meanwhile triggers another round
+    private void reloadAtStoredVersion() {
+        long version = ruleVersionStore.current();
+        ruleLoaderService.rebuildContainer();
+        servedVersion.accumulateAndGet(version, Math::max);
+    }
+
+    private void catchUp() {
+        if (catchUpQueued.compareAndSet(false, true)) {
+            PublishTicket ticket = newTicket("SYNC", null);
+            executor.execute(() -> {
+                catchUpQueued.set(false);
+                publish(ticket, this::reloadAtStoredVersion, false);
+            });
+        }
+    }
+
+    private void checkClusterVersion() {
+        try {
+            if (servedVersion.get() >= 0 && ruleVersionStore.current() > servedVersion.get()) {
+                markBehind();
+                log.info("Rule set behind the stored version; reloading");
+                catchUp();
+            }
+        } catch (Exception e) {
+            log.warn("Rule set version check failed: {}", e.getMessage());
+        }
+    }
+
+    private void markBehind() {
+        if (behindSince == null) {
+            behindSince = Instant.now();
+        }
+    }
+
+    // Detached copy of what the loader needs; the entity belongs to the calling thread
+    private static Rule detached(Rule rule) {
+        return Rule.builder()
+                .id(rule.getId())
+                .ruleName(rule.getRuleName())
+                .isActive(rule.getIsActive())
+                .drlContent(rule.getDrlContent())
+                .priority(rule.getPriority())
+                .ruleGroup(rule.getRuleGroup())
+                .groupMode(rule.getGroupMode())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
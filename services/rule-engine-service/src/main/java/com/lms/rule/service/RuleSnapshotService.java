@@ -0,0 +1,113 @@
+package com.lms.rule.service;
+
+import com.lms.rule.engine.RuleSnapshot;
+import com.lms.rule.model.Rule;
+import com.lms.rule.repository.RuleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link RuleSnapshot}. Evaluation reads it without any
+ * database access; rule changes rebuild it and swap the reference.
+ *
+ * A snapshot only contains the rules valid when it was built, so the service
+ * also republishes from the last loaded rules at each activation or expiry
+ * instant (the snapshot's next transition).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RuleSnapshotService {
+    // Long waits are split so a far-future transition never overflows the scheduler delay
+    private static final Duration MAX_WAIT = Duration.ofHours(1);
+
+    private final RuleRepository ruleRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<RuleSnapshot> current = new AtomicReference<>(RuleSnapshot.empty());
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private final ScheduledExecutorService timeline = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rule-timeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private List<Rule> rules = List.of();
+    private ScheduledFuture<?> pendingTransition;
+    private Counter transitions;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("loyalty.rules.snapshot.version", current, ref -> ref.get().getVersion())
+                .description("Version of the rule snapshot currently served")
+                .register(meterRegistry);
+        transitions = meterRegistry.counter("loyalty.rules.snapshot.transitions.total");
+        refresh();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timeline.shutdownNow();
+    }
+
+    public RuleSnapshot current() {
+        return current.get();
+    }
+
+    public synchronized RuleSnapshot refresh() {
+        rules = ruleRepository.findAll();
+        return publish();
+    }
+
+    private synchronized RuleSnapshot publish() {
+        RuleSnapshot snapshot = RuleSnapshot.build(versionSequence.incrementAndGet(), rules, LocalDateTime.now());
+        current.set(snapshot);
+        log.info("Rule snapshot v{} published with {} simple rules and {} event types; next transition {}.",
+                snapshot.getVersion(), snapshot.getSimpleRules().size(), snapshot.getEventRules().size(),
+                snapshot.getNextTransition());
+        scheduleTransition(snapshot);
+        return snapshot;
+    }
+
+    private void scheduleTransition(RuleSnapshot snapshot) {
+        if (pendingTransition != null) {
+            pendingTransition.cancel(false);
+            pendingTransition = null;
+        }
+        if (snapshot.getNextTransition() == null) {
+            return;
+        }
+        Duration wait = Duration.between(LocalDateTime.now(), snapshot.getNextTransition());
+        long delayNanos = wait.compareTo(MAX_WAIT) > 0 ? MAX_WAIT.toNanos() : Math.max(wait.toNanos(), 0);
+        pendingTransition = timeline.schedule(() -> transition(snapshot), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void transition(RuleSnapshot scheduledFor) {
+        // A refresh in the meantime has already rescheduled
+        if (current.get() != scheduledFor) {
+            return;
+        }
+        if (LocalDateTime.now().isBefore(scheduledFor.getNextTransition())) {
+            scheduleTransition(scheduledFor);
+            return;
+        }
+        transitions.increment();
+        publish();
+    }
+}
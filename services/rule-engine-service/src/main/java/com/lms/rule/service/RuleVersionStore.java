@@ -0,0 +1,32 @@
+package com.lms.rule.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cluster-wide rule set version, kept in the single row of rule_set_version.
+ */
+@Service
+@RequiredArgsConstructor
+public class RuleVersionStore {
+    private static final String CURRENT_SQL = "SELECT version FROM rule_set_version WHERE id = 1";
+    private static final String NEXT_SQL = "INSERT INTO rule_set_version (id, version, updated_by, updated_at) "
+            + "VALUES (1, 1, ?, now()) ON CONFLICT (id) DO UPDATE "
+            + "SET version = rule_set_version.version + 1, updated_by = EXCLUDED.updated_by, updated_at = now() "
+            + "RETURNING version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 0 until the first change is published
+    public long current() {
+        return jdbcTemplate.query(CURRENT_SQL, rs -> rs.next() ? rs.getLong(1) : 0L);
+    }
+
+    /**
+     * Atomically claims the next version for a change published by the given instance.
+     */
+    public long next(String instanceId) {
+        return jdbcTemplate.queryForObject(NEXT_SQL, Long.class, instanceId);
+    }
+}
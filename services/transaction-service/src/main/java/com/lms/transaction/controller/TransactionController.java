@@ -22,6 +22,8 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Transaction Management", description = "APIs for recording customer transactions and retrieving transaction summaries")
 public class TransactionController {
         private final TransactionRepository transactionRepository;
+        private final com.lms.transaction.repository.DailyActivityRepository dailyActivityRepository;
+        private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
         private final TransactionEventProducer eventProducer;
         private final com.lms.transaction.client.MemberClient memberClient;
 
@@ -47,6 +49,7 @@ public class TransactionController {
                                 .amount(saved.getAmount())
                                 .paymentMethod(saved.getPaymentMethod())
                                 .productCategory(saved.getProductCategory())
+                                .transactionDate(saved.getTransactionDate())
                                 .build());
 
                 return ResponseEntity.ok(saved);
@@ -121,6 +124,84 @@ public class TransactionController {
                                                                 java.math.BigDecimal.ZERO)));
         }
 
+        @PostMapping("/summary/batch")
+        @Operation(summary = "Get transaction summaries of many members", description = "Retrieve the transaction summaries of the given members for one period, in request order, with one query")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Summaries retrieved successfully", content = @Content(schema = @Schema(implementation = com.lms.transaction.model.TransactionSummary.class)))
+        })
+        public ResponseEntity<java.util.List<com.lms.transaction.model.TransactionSummary>> getSummaries(
+                        @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Member IDs", required = true) @RequestBody java.util.List<Long> memberIds,
+                        @Parameter(description = "Time period (MONTHLY, QUARTERLY, YEARLY)", example = "MONTHLY") @RequestParam(required = false) String period) {
+                java.time.LocalDateTime since = java.time.LocalDateTime.now().minusMonths(1); // Default
+                if ("QUARTERLY".equalsIgnoreCase(period))
+                        since = java.time.LocalDateTime.now().minusMonths(3);
+                else if ("YEARLY".equalsIgnoreCase(period))
+                        since = java.time.LocalDateTime.now().minusYears(1);
+
+                java.util.Map<Long, com.lms.transaction.model.TransactionSummary> found = new java.util.HashMap<>();
+                if (!memberIds.isEmpty()) {
+                        for (com.lms.transaction.model.TransactionSummary summary : transactionRepository
+                                        .getSummaries(new java.util.HashSet<>(memberIds), since)) {
+                                found.put(summary.getMemberId(), summary);
+                        }
+                }
+                return ResponseEntity.ok(memberIds.stream()
+                                .map(memberId -> found.getOrDefault(memberId,
+                                                new com.lms.transaction.model.TransactionSummary(memberId, 0L,
+                                                                java.math.BigDecimal.ZERO)))
+                                .toList());
+        }
+
+        @GetMapping("/activity/daily")
+        @Operation(summary = "Stream daily activity", description = "Stream per member and day transaction counts and totals since a date, and before another if given, as a JSON array. Consumers keeping their own rolling aggregates rebuild from it; afterId limits it to transactions created after one they have already counted")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Daily activity streamed", content = @Content(schema = @Schema(implementation = com.lms.transaction.model.DailyActivity.class)))
+        })
+        public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> getDailyActivity(
+                        @Parameter(description = "First day included", required = true, example = "2026-01-01") @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate since,
+                        @Parameter(description = "First day excluded; none by default", example = "2026-03-01") @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate until,
+                        @Parameter(description = "Only transactions with a higher id", example = "0") @RequestParam(defaultValue = "0") long afterId) {
+                org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody body = out -> {
+                        try (com.fasterxml.jackson.core.JsonGenerator generator = objectMapper.getFactory()
+                                        .createGenerator(out)) {
+                                generator.writeStartArray();
+                                dailyActivityRepository.forEach(since, until, afterId, activity -> {
+                                        try {
+                                                generator.writeObject(activity);
+                                        } catch (java.io.IOException e) {
+                                                throw new java.io.UncheckedIOException(e);
+                                        }
+                                });
+                                generator.writeEndArray();
+                        }
+                };
+                return ResponseEntity.ok().contentType(org.springframework.http.MediaType.APPLICATION_JSON).body(body);
+        }
+
+        @GetMapping("/activity/transactions")
+        @Operation(summary = "Stream activity transactions", description = "Stream the transactions since a date with their member, day and amount, as a JSON array. Consumers keeping their own rolling aggregates re-read their most recent days from it, so they know which transactions are already counted")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Transactions streamed", content = @Content(schema = @Schema(implementation = com.lms.transaction.model.TransactionActivity.class)))
+        })
+        public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> getActivityTransactions(
+                        @Parameter(description = "First day included", required = true, example = "2026-01-01") @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate since) {
+                org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody body = out -> {
+                        try (com.fasterxml.jackson.core.JsonGenerator generator = objectMapper.getFactory()
+                                        .createGenerator(out)) {
+                                generator.writeStartArray();
+                                dailyActivityRepository.forEachTransaction(since, activity -> {
+                                        try {
+                                                generator.writeObject(activity);
+                                        } catch (java.io.IOException e) {
+                                                throw new java.io.UncheckedIOException(e);
+                                        }
+                                });
+                                generator.writeEndArray();
+                        }
+                };
+                return ResponseEntity.ok().contentType(org.springframework.http.MediaType.APPLICATION_JSON).body(body);
+        }
+
         @DeleteMapping
         @Operation(summary = "Delete all transactions", description = "Remove all transactions from the system (Dev/Cleanup only)")
         @ApiResponses(value = {
@@ -0,0 +1,23 @@
+package com.lms.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One member's transactions on one calendar day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyActivity {
+    private Long memberId;
+    private LocalDate day;
+    private long transactionCount;
+    private BigDecimal totalAmount;
+    // Highest transaction id included, so a consumer can resume after it
+    private Long lastTransactionId;
+}
@@ -0,0 +1,21 @@
+package com.lms.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One transaction as counted in daily activity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionActivity {
+    private Long transactionId;
+    private Long memberId;
+    private LocalDate day;
+    private BigDecimal amount;
+}
@@ -0,0 +1,66 @@
+package com.lms.transaction.repository;
+
+import com.lms.transaction.model.DailyActivity;
+import com.lms.transaction.model.TransactionActivity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Per member and day transaction totals, or the transactions themselves for
+ * a few recent days, streamed with a server-side cursor so a full rebuild
+ * never holds the result set in memory.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailyActivityRepository {
+        private static final String DAILY_ACTIVITY_SQL = "SELECT member_id, CAST(transaction_date AS date) AS day, "
+                        + "COUNT(*) AS transaction_count, SUM(amount) AS total_amount, MAX(id) AS last_id "
+                        + "FROM transactions WHERE transaction_date >= ? AND id > ? ";
+        private static final String BEFORE_SQL = "AND transaction_date < ? ";
+        private static final String GROUP_SQL = "GROUP BY member_id, CAST(transaction_date AS date)";
+        private static final String TRANSACTIONS_SQL = "SELECT id, member_id, CAST(transaction_date AS date) AS day, "
+                        + "amount FROM transactions WHERE transaction_date >= ?";
+        private static final int FETCH_SIZE = 1000;
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+
+        /**
+         * @param until first day excluded, or null for no upper bound
+         */
+        public void forEach(LocalDate since, LocalDate until, long afterId, Consumer<DailyActivity> consumer) {
+                // PostgreSQL only honours the fetch size inside a transaction
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                        PreparedStatement statement = connection.prepareStatement(
+                                        DAILY_ACTIVITY_SQL + (until != null ? BEFORE_SQL : "") + GROUP_SQL);
+                        statement.setFetchSize(FETCH_SIZE);
+                        statement.setTimestamp(1, Timestamp.valueOf(since.atStartOfDay()));
+                        statement.setLong(2, afterId);
+                        if (until != null) {
+                                statement.setTimestamp(3, Timestamp.valueOf(until.atStartOfDay()));
+                        }
+                        return statement;
+                }, (RowCallbackHandler) rs -> consumer.accept(new DailyActivity(rs.getLong("member_id"),
+                                rs.getDate("day").toLocalDate(), rs.getLong("transaction_count"),
+                                rs.getBigDecimal("total_amount"), rs.getLong("last_id")))));
+        }
+
+        public void forEachTransaction(LocalDate since, Consumer<TransactionActivity> consumer) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                        PreparedStatement statement = connection.prepareStatement(TRANSACTIONS_SQL);
+                        statement.setFetchSize(FETCH_SIZE);
+                        statement.setTimestamp(1, Timestamp.valueOf(since.atStartOfDay()));
+                        return statement;
+                }, (RowCallbackHandler) rs -> consumer.accept(new TransactionActivity(rs.getLong("id"),
+                                rs.getLong("member_id"), rs.getDate("day").toLocalDate(),
+                                rs.getBigDecimal("amount")))));
+        }
+}
@@ -28,4 +28,12 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                         "GROUP BY t.memberId")
         java.util.Optional<com.lms.transaction.model.TransactionSummary> getMonthlySummary(Long memberId,
                         java.time.LocalDateTime startDate, java.time.LocalDateTime endDate);
+
+        // Summaries of many members at once; members without transactions since then are absent
+        @org.springframework.data.jpa.repository.Query("SELECT new com.lms.transaction.model.TransactionSummary(t.memberId, COUNT(t), SUM(t.amount)) "
+                        +
+                        "FROM Transaction t WHERE t.memberId IN :memberIds AND t.transactionDate >= :since " +
+                        "GROUP BY t.memberId")
+        List<com.lms.transaction.model.TransactionSummary> getSummaries(java.util.Collection<Long> memberIds,
+                        java.time.LocalDateTime since);
 }